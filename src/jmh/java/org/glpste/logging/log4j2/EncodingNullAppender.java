@@ -0,0 +1,75 @@
+package org.glpste.logging.log4j2;
+
+import org.apache.logging.log4j.core.Appender;
+import org.apache.logging.log4j.core.Core;
+import org.apache.logging.log4j.core.Filter;
+import org.apache.logging.log4j.core.Layout;
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.appender.AbstractAppender;
+import org.apache.logging.log4j.core.config.Property;
+import org.apache.logging.log4j.core.config.plugins.Plugin;
+import org.apache.logging.log4j.core.config.plugins.PluginAttribute;
+import org.apache.logging.log4j.core.config.plugins.PluginElement;
+import org.apache.logging.log4j.core.config.plugins.PluginFactory;
+import org.apache.logging.log4j.core.layout.ByteBufferDestination;
+
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+
+/**
+ * Appender which encodes every event with its layout and discards the bytes afterwards.
+ * <p>
+ * Log4j2's {@code Null} appender skips the layout, so it can't be used to measure the cost of the layout.
+ * </p>
+ */
+@Plugin(name = "EncodingNull", category = Core.CATEGORY_NAME, elementType = Appender.ELEMENT_TYPE)
+public final class EncodingNullAppender extends AbstractAppender {
+    private static final ThreadLocal<DiscardingDestination> DESTINATION = ThreadLocal.withInitial(DiscardingDestination::new);
+
+    private EncodingNullAppender(String name, Layout<? extends Serializable> layout) {
+        super(name, null, layout, true, Property.EMPTY_ARRAY);
+    }
+
+    /**
+     * @param name   the name of the appender
+     * @param layout the layout to encode the events with
+     * @param filter not supported, only present to satisfy the plugin system
+     * @return the new appender
+     */
+    @PluginFactory
+    public static EncodingNullAppender createAppender(@PluginAttribute("name") String name,
+                                                      @PluginElement("Layout") Layout<? extends Serializable> layout,
+                                                      @PluginElement("Filter") Filter filter) {
+        return new EncodingNullAppender(name, layout);
+    }
+
+    @Override
+    public void append(LogEvent event) {
+        getLayout().encode(event, DESTINATION.get());
+    }
+
+    private static final class DiscardingDestination implements ByteBufferDestination {
+        private final ByteBuffer byteBuffer = ByteBuffer.allocate(64 * 1024);
+
+        @Override
+        public ByteBuffer getByteBuffer() {
+            return byteBuffer;
+        }
+
+        @Override
+        public ByteBuffer drain(ByteBuffer buf) {
+            buf.clear();
+            return buf;
+        }
+
+        @Override
+        public void writeBytes(ByteBuffer data) {
+            data.position(data.limit());
+        }
+
+        @Override
+        public void writeBytes(byte[] data, int offset, int length) {
+            // discarded
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package org.glpste.logging.log4j2;
+
+import org.apache.logging.log4j.layout.template.json.util.JsonWriter;
+import org.apache.logging.log4j.layout.template.json.util.ThreadLocalRecyclerFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures filtering and rendering of {@link FilteredStacktraceStackTraceJsonResolver#resolve}.
+ * <p>
+ * Run with {@code mvn -P benchmark test-compile exec:exec}. The allocation rate is reported by the GC profiler which is
+ * enabled by default.
+ * </p>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class FilteredStacktraceResolverBenchmark {
+    /**
+     * Packages typically found in the stacktraces of server applications. Every second frame belongs to the application.
+     */
+    private static final String[] FRAMEWORK_CLASSES = {
+            "org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter",
+            "org.springframework.aop.framework.ReflectiveMethodInvocation",
+            "io.netty.channel.AbstractChannelHandlerContext",
+            "jdk.internal.reflect.NativeMethodAccessorImpl",
+            "java.lang.reflect.Method",
+            "org.apache.catalina.core.ApplicationFilterChain",
+            "sun.reflect.GeneratedMethodAccessor42",
+            "com.example.framework.internal.Dispatcher"
+    };
+
+    private static final String[] APPLICATION_CLASSES = {
+            "com.example.app.web.OrderController",
+            "com.example.app.service.OrderService",
+            "com.example.app.repository.OrderRepository"
+    };
+
+    private static final String[] CONFIGURED_PACKAGES = {
+            "org.springframework.", "io.netty.", "jdk.internal.", "java.lang.reflect.", "org.apache.catalina.", "sun.reflect.",
+            "com.example.framework."
+    };
+
+    @Param({"10", "64", "256", "1024"})
+    private int stackTraceDepth;
+
+    @Param({"1", "3", "10"})
+    private int causeChainLength;
+
+    @Param({"10", "150"})
+    private int configuredPackages;
+
+    @Param({"filter", "allow"})
+    private String listMode;
+
+    @Param({"false", "true"})
+    private boolean cacheEnabled;
+
+    private FilteredStacktraceStackTraceJsonResolver resolver;
+    private Throwable throwable;
+    private JsonWriter jsonWriter;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<String> packages = createPackageList();
+        JsonTemplateFieldConfig.Builder fieldConfig = JsonTemplateFieldConfig.builder()
+                .classVerdictCacheSize(cacheEnabled ? 1024 : 0)
+                .renderedStackTraceCacheSize(cacheEnabled ? 128 : 0);
+
+        if ("allow".equals(listMode)) {
+            fieldConfig.allowedPackages(packages).filteredPackages(Collections.emptyList());
+        } else {
+            fieldConfig.allowedPackages(Collections.emptyList()).filteredPackages(packages);
+        }
+
+        resolver = new FilteredStacktraceStackTraceJsonResolver(ThreadLocalRecyclerFactory.getInstance(), 1_000_000, fieldConfig.build());
+        throwable = createThrowable();
+        jsonWriter = JsonWriter.newBuilder().setMaxStringLength(1_000_000).setTruncatedStringSuffix("...").build();
+    }
+
+    @Benchmark
+    public int resolve() {
+        StringBuilder jsonBuffer = jsonWriter.getStringBuilder();
+        jsonBuffer.setLength(0);
+
+        resolver.resolve(throwable, jsonWriter);
+
+        return jsonBuffer.length();
+    }
+
+    private List<String> createPackageList() {
+        List<String> packages = new ArrayList<>();
+
+        if ("allow".equals(listMode)) {
+            packages.add("com.example.app.");
+        } else {
+            Collections.addAll(packages, CONFIGURED_PACKAGES);
+        }
+
+        // fill up with packages not found in the stacktrace, which have to be checked nevertheless
+        for (int i = 0; packages.size() < configuredPackages; i++) {
+            packages.add("com.vendor" + i + ".library" + i + ".");
+        }
+
+        return packages;
+    }
+
+    private Throwable createThrowable() {
+        Throwable cause = null;
+
+        for (int i = causeChainLength - 1; i >= 0; i--) {
+            Throwable current = new IllegalStateException("failure in layer " + i, cause);
+            current.setStackTrace(createStackTrace(i));
+            cause = current;
+        }
+
+        return cause;
+    }
+
+    private StackTraceElement[] createStackTrace(int causeIndex) {
+        StackTraceElement[] stackTrace = new StackTraceElement[stackTraceDepth];
+
+        for (int i = 0; i < stackTraceDepth; i++) {
+            String className = i % 2 == 0
+                    ? APPLICATION_CLASSES[(i + causeIndex) % APPLICATION_CLASSES.length]
+                    : FRAMEWORK_CLASSES[(i + causeIndex) % FRAMEWORK_CLASSES.length];
+            String simpleName = className.substring(className.lastIndexOf('.') + 1);
+
+            stackTrace[i] = new StackTraceElement(className, "method" + i % 7, simpleName + ".java", 10 + i);
+        }
+
+        return stackTrace;
+    }
+}
@@ -0,0 +1,82 @@
+package org.glpste.logging.log4j2;
+
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.core.LoggerContext;
+import org.apache.logging.log4j.core.config.Configurator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures logging an exception end-to-end through a {@code JsonTemplateLayout}, comparing the
+ * {@code filteredStacktraceException} resolver with Log4j2's built-in {@code exception} resolver.
+ * <p>
+ * The events are encoded by the layout and discarded by the {@link EncodingNullAppender}. Each pipeline is configured in
+ * {@code src/jmh/resources/benchmark}: synchronous logging, an {@code AsyncAppender} and an async logger. Throughput and
+ * the latency percentiles (p99 among others) are reported, add {@code -prof gc} for the GC pressure and {@code -t} to
+ * change the number of logging threads.
+ * </p>
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class JsonTemplateLayoutBenchmark {
+    @Param({"sync", "asyncAppender", "asyncLogger"})
+    private String pipeline;
+
+    @Param({"filtered", "builtin"})
+    private String resolver;
+
+    private LoggerContext loggerContext;
+    private Logger logger;
+    private Throwable throwable;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // selects the event template, see the configuration files
+        System.setProperty("benchmark.resolver", resolver);
+
+        loggerContext = Configurator.initialize("benchmark-" + pipeline + "-" + resolver, "classpath:benchmark/log4j2-" + pipeline + ".xml");
+        logger = loggerContext.getLogger("benchmark");
+        throwable = createThrowable(30);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        Configurator.shutdown(loggerContext);
+    }
+
+    @Benchmark
+    public void logException() {
+        logger.error("request failed", throwable);
+    }
+
+    private Throwable createThrowable(int depth) {
+        if (depth > 0) {
+            return createThrowable(depth - 1);
+        }
+
+        try {
+            throw new IllegalArgumentException("invalid order id");
+        } catch (IllegalArgumentException e) {
+            return new IllegalStateException("order processing failed", e);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package org.glpste.logging.log4j2;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread-safe cache holding at most {@code maxSize} entries.
+ * <p>
+ * Lookups are lock-free reads of a {@link ConcurrentHashMap}. Once the cache is full, the oldest entries are evicted in
+ * insertion order (FIFO). The cache is meant for small and stable key sets, like the class names found in stacktraces.
+ * Hits and misses are counted with {@link LongAdder}s to avoid contention between threads.
+ * </p>
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the cached values
+ */
+final class BoundedCache<K, V> {
+    private final int maxSize;
+    private final ConcurrentHashMap<K, V> entries;
+    private final Queue<K> insertionOrder = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    BoundedCache(int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("maxSize must be positive: " + maxSize);
+        }
+
+        this.maxSize = maxSize;
+        this.entries = new ConcurrentHashMap<>(Math.min(maxSize, 1024));
+    }
+
+    /**
+     * @param key the key to look up
+     * @return the cached value or {@code null} if the key is not cached
+     */
+    V get(K key) {
+        V value = entries.get(key);
+
+        if (value == null) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+
+        return value;
+    }
+
+    /**
+     * Caches the value unless another thread cached a value for the key in the meantime.
+     *
+     * @param key   the key
+     * @param value the value to cache
+     * @return the value cached before or {@code null} if the given value has been cached
+     */
+    V putIfAbsent(K key, V value) {
+        V previousValue = entries.putIfAbsent(key, value);
+
+        if (previousValue == null) {
+            insertionOrder.offer(key);
+
+            if (size.incrementAndGet() > maxSize) {
+                evictOldest();
+            }
+        }
+
+        return previousValue;
+    }
+
+    /**
+     * @return the number of cached entries
+     */
+    int size() {
+        return size.get();
+    }
+
+    /**
+     * @return the number of lookups which found a cached value
+     */
+    long hitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * @return the number of lookups which did not find a cached value
+     */
+    long missCount() {
+        return misses.sum();
+    }
+
+    private void evictOldest() {
+        K oldestKey = insertionOrder.poll();
+
+        if (oldestKey != null && entries.remove(oldestKey) != null) {
+            size.decrementAndGet();
+        }
+    }
+}
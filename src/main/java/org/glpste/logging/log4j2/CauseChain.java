@@ -0,0 +1,108 @@
+package org.glpste.logging.log4j2;
+
+/**
+ * Walks the cause chain of a throwable safely: cycles like A → B → A are detected by identity and the number of causes
+ * can be limited.
+ * <p>
+ * Nothing is allocated, the chain is walked again instead of remembering the visited throwables. This is cheap as the
+ * number of rendered causes is limited.
+ * </p>
+ */
+final class CauseChain {
+    private CauseChain() {
+        // utility class
+    }
+
+    /**
+     * @param root      the outermost throwable of the chain
+     * @param throwable the throwable to look for
+     * @param count     the number of throwables to check, starting with the root
+     * @return the position of the throwable within the first {@code count} throwables of the chain or -1 if not found
+     */
+    static int indexOf(Throwable root, Throwable throwable, int count) {
+        Throwable current = root;
+
+        for (int i = 0; i < count && current != null; i++) {
+            if (current == throwable) {
+                return i;
+            }
+
+            current = current.getCause();
+        }
+
+        return -1;
+    }
+
+    /**
+     * @param root  the outermost throwable of the chain
+     * @param index the position within the chain, the root is at position 0
+     * @return the throwable at the position or {@code null} if the chain is shorter
+     */
+    static Throwable get(Throwable root, int index) {
+        Throwable current = root;
+
+        for (int i = 0; i < index && current != null; i++) {
+            current = current.getCause();
+        }
+
+        return current;
+    }
+
+    /**
+     * Counts the distinct throwables of the chain using Brent's cycle detection.
+     *
+     * @param root the outermost throwable of the chain
+     * @return the number of distinct throwables in the chain, including the root
+     */
+    static int countDistinct(Throwable root) {
+        if (root == null) {
+            return 0;
+        }
+
+        int power = 1;
+        int cycleLength = 1;
+        Throwable tortoise = root;
+        Throwable hare = root.getCause();
+
+        while (hare != null && hare != tortoise) {
+            if (power == cycleLength) {
+                tortoise = hare;
+                power *= 2;
+                cycleLength = 0;
+            }
+
+            hare = hare.getCause();
+            cycleLength++;
+        }
+
+        if (hare == null) {
+            return countUntilEnd(root);
+        }
+
+        // find the start of the cycle: the hare runs one cycle length ahead of the tortoise
+        tortoise = root;
+        hare = root;
+        for (int i = 0; i < cycleLength; i++) {
+            hare = hare.getCause();
+        }
+
+        int cycleStart = 0;
+        while (tortoise != hare) {
+            tortoise = tortoise.getCause();
+            hare = hare.getCause();
+            cycleStart++;
+        }
+
+        return cycleStart + cycleLength;
+    }
+
+    private static int countUntilEnd(Throwable root) {
+        int count = 0;
+
+        for (Throwable current = root; current != null; current = current.getCause()) {
+            count++;
+        }
+
+        return count;
+    }
+}
@@ -0,0 +1,84 @@
+package org.glpste.logging.log4j2;
+
+/**
+ * Shortens fully qualified class names to a target length by abbreviating the package names to their first letter, from
+ * left to right, like Logback's {@code TargetLengthBasedClassNameAbbreviator}. The simple class name is never shortened,
+ * e.g. {@code org.springframework.web.servlet.DispatcherServlet} becomes {@code o.s.w.s.DispatcherServlet} for a target
+ * length of 1.
+ * <p>
+ * The abbreviations are kept in a {@link BoundedCache}, so the same class name is abbreviated only once. Instances can be
+ * shared between threads.
+ * </p>
+ */
+final class ClassNameAbbreviator {
+    /**
+     * The number of abbreviations cached by a resolver, independent of the verdict cache, which may be disabled.
+     */
+    static final int CACHE_SIZE = 1024;
+
+    private final int targetLength;
+    private final BoundedCache<String, String> abbreviationCache;
+
+    ClassNameAbbreviator(int targetLength, int cacheSize) {
+        this.targetLength = targetLength;
+        this.abbreviationCache = cacheSize > 0 ? new BoundedCache<>(cacheSize) : null;
+    }
+
+    /**
+     * @param className the fully qualified class name
+     * @return the abbreviated class name
+     */
+    String abbreviate(String className) {
+        if (className.length() <= targetLength) {
+            return className;
+        }
+
+        if (abbreviationCache == null) {
+            return computeAbbreviation(className);
+        }
+
+        String abbreviation = abbreviationCache.get(className);
+
+        if (abbreviation == null) {
+            abbreviation = computeAbbreviation(className);
+            abbreviationCache.putIfAbsent(className, abbreviation);
+        }
+
+        return abbreviation;
+    }
+
+    private String computeAbbreviation(String className) {
+        int lastDotIndex = className.lastIndexOf('.');
+
+        if (lastDotIndex == -1) {
+            return className;
+        }
+
+        // chars to remove from the packages to reach the target length, the simple class name is kept
+        int charsToTrim = className.length() - targetLength;
+        int trimmedChars = 0;
+        StringBuilder abbreviation = new StringBuilder(className.length());
+        boolean segmentStart = true;
+        int i = 0;
+
+        for (; i < lastDotIndex; i++) {
+            char c = className.charAt(i);
+
+            if (c == '.') {
+                if (trimmedChars >= charsToTrim) {
+                    break;
+                }
+
+                abbreviation.append(c);
+                segmentStart = true;
+            } else if (segmentStart) {
+                abbreviation.append(c);
+                segmentStart = false;
+            } else {
+                trimmedChars++;
+            }
+        }
+
+        return abbreviation.append(className, i, className.length()).toString();
+    }
+}
@@ -0,0 +1,144 @@
+package org.glpste.logging.log4j2;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Matches class names against a list of rules: plain package prefixes, globs and regular expressions.
+ * <ul>
+ *     <li>{@code regex:jdk\.internal\.reflect\..*} is a regular expression matching the whole class name</li>
+ *     <li>{@code com.sun.proxy.$Proxy*} is a glob matching the whole class name, {@code *} matches any chars and
+ *     {@code ?} a single char</li>
+ *     <li>everything else is a prefix of the class name, like {@code org.junit.}</li>
+ * </ul>
+ * <p>
+ * The prefixes are compiled into a {@link PackagePrefixTrie}, the globs and regular expressions into a single
+ * {@link Pattern} with one alternative per rule. The pattern is still a backtracking matcher trying the alternatives one
+ * after another, so a lookup costs more the more globs and regular expressions are configured. The verdict cache of the
+ * {@link StackTraceFilter} hides this cost, as a class is matched once per cache entry only. Each rule is compiled on its own first, so an invalid rule is reported by name. Back-references
+ * are rejected, as the group numbers of a rule shift in the combined pattern.
+ * </p>
+ */
+final class ClassNameMatcher {
+    static final String REGEX_PREFIX = "regex:";
+
+    private final PackagePrefixTrie prefixes;
+    private final Pattern patterns;
+
+    /**
+     * @param rules the prefixes, globs and regular expressions
+     * @throws IllegalArgumentException if a regular expression is invalid or contains a back-reference
+     */
+    ClassNameMatcher(Collection<String> rules) {
+        List<String> prefixRules = new ArrayList<>();
+        StringBuilder combinedPattern = new StringBuilder();
+
+        for (String rule : rules) {
+            if (rule == null) {
+                continue;
+            }
+
+            if (rule.startsWith(REGEX_PREFIX)) {
+                appendAlternative(validateRegex(rule), combinedPattern);
+            } else if (rule.indexOf('*') >= 0 || rule.indexOf('?') >= 0) {
+                appendAlternative(globToRegex(rule), combinedPattern);
+            } else {
+                prefixRules.add(rule);
+            }
+        }
+
+        this.prefixes = new PackagePrefixTrie(prefixRules);
+        this.patterns = combinedPattern.length() > 0 ? Pattern.compile(combinedPattern.toString()) : null;
+    }
+
+    /**
+     * @param className the fully qualified class name
+     * @return {@code true} if the class name starts with a prefix or matches a glob or regular expression
+     */
+    boolean matches(String className) {
+        return prefixes.matchesPrefixOf(className) || patterns != null && patterns.matcher(className).matches();
+    }
+
+    /**
+     * @return {@code true} if there are no rules
+     */
+    boolean isEmpty() {
+        return prefixes.isEmpty() && patterns == null;
+    }
+
+    private static String validateRegex(String rule) {
+        String regex = rule.substring(REGEX_PREFIX.length());
+
+        try {
+            Pattern.compile(regex);
+        } catch (PatternSyntaxException e) {
+            throw new IllegalArgumentException("Invalid regular expression in stacktrace filter rule " + rule + ": "
+                    + e.getDescription(), e);
+        }
+
+        if (containsBackReference(regex)) {
+            throw new IllegalArgumentException("Back-references are not supported in stacktrace filter rule " + rule);
+        }
+
+        return regex;
+    }
+
+    private static boolean containsBackReference(String regex) {
+        boolean quoted = false;
+
+        for (int i = 0; i < regex.length() - 1; i++) {
+            if (regex.charAt(i) != '\\') {
+                continue;
+            }
+
+            char escaped = regex.charAt(++i);
+
+            if (quoted) {
+                quoted = escaped != 'E';
+            } else if (escaped == 'Q') {
+                quoted = true;
+            } else if (escaped >= '1' && escaped <= '9' || escaped == 'k') {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static void appendAlternative(String regex, StringBuilder combinedPattern) {
+        if (combinedPattern.length() > 0) {
+            combinedPattern.append('|');
+        }
+
+        // non-capturing, so the alternatives don't affect each other
+        combinedPattern.append("(?:").append(regex).append(')');
+    }
+
+    private static String globToRegex(String glob) {
+        StringBuilder regex = new StringBuilder(glob.length() + 16);
+        int literalStart = 0;
+
+        for (int i = 0; i < glob.length(); i++) {
+            char c = glob.charAt(i);
+
+            if (c == '*' || c == '?') {
+                appendLiteral(glob.substring(literalStart, i), regex);
+                regex.append(c == '*' ? ".*" : ".");
+                literalStart = i + 1;
+            }
+        }
+
+        appendLiteral(glob.substring(literalStart), regex);
+
+        return regex.toString();
+    }
+
+    private static void appendLiteral(String literal, StringBuilder regex) {
+        if (!literal.isEmpty()) {
+            regex.append(Pattern.quote(literal));
+        }
+    }
+}
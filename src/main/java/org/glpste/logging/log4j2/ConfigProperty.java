@@ -11,7 +11,8 @@ public enum ConfigProperty {
 
     /**
      * The list of packages that are allowed in the stack trace.
-     * If set, {@link ConfigProperty#LIST_FILTER} will be ignored.
+     * If set, {@link ConfigProperty#LIST_FILTER} will be ignored, including its frame rules. Frame rules alone don't count as
+     * allowed packages.
      */
     LIST_ALLOW("allowedPackages", ""),
 
@@ -38,7 +39,132 @@ public enum ConfigProperty {
     /**
      * The field name for the count of filtered elements in the JSON output.
      */
-    COUNT("countField", "totalFilteredElements")
+    COUNT("countField", "totalFilteredElements"),
+
+    /**
+     * The maximum number of class names whose filter verdict is cached. Use 0 to disable the cache.
+     */
+    VERDICT_CACHE_SIZE("classVerdictCacheSize", "1024"),
+
+    /**
+     * The maximum number of rendered stacktraces which are cached and reused for identical exceptions. Use 0 to disable
+     * the cache.
+     */
+    RENDER_CACHE_SIZE("renderedStackTraceCacheSize", "0"),
+
+    /**
+     * Renders the stack trace elements field by field instead of calling {@link StackTraceElement#toString()}, so resolving
+     * a repeated exception does not create garbage. The module and class loader names of newer Java versions are omitted.
+     */
+    GARBAGE_FREE("garbageFree", "false"),
+
+    /**
+     * Replaces the trailing stack trace elements a cause shares with its enclosing throwable by "... N more", like
+     * {@link Throwable#printStackTrace()} does.
+     */
+    ELIDE_COMMON_FRAMES("elideCommonFrames", "false"),
+
+    /**
+     * Renders a sequence of stack trace elements repeated back to back (e.g. the recursion of a {@link StackOverflowError})
+     * only once, followed by the number of repetitions.
+     */
+    COLLAPSE_RECURSION("collapseRecursion", "false"),
+
+    /**
+     * The maximum number of causes rendered below the outermost throwable. Further causes are replaced by the number of
+     * omitted causes. Values below 1 are replaced by the default.
+     */
+    MAX_CAUSE_DEPTH("maxCauseDepth", "64"),
+
+    /**
+     * Renders the suppressed exceptions of every throwable, like {@link Throwable#printStackTrace()} does. At most 1024
+     * stack trace elements are rendered then, unless {@link #MAX_RENDERED_FRAMES} is set.
+     */
+    SUPPRESSED("suppressedExceptions", "false"),
+
+    /**
+     * The maximum number of stack trace elements rendered for the whole exception including its causes and suppressed
+     * exceptions. Use 0 for no limit.
+     */
+    MAX_RENDERED_FRAMES("maxRenderedFrames", "0"),
+
+    /**
+     * Keeps the top of the outermost throwable and the root cause if the stack trace exceeds the max. string length and
+     * replaces the causes in between by a marker. Rendering stops once the max. string length is reached.
+     */
+    HEAD_AND_TAIL("headAndTailTruncation", "false"),
+
+    /**
+     * The maximum number of stack trace elements whose rendered and JSON escaped text is cached. Use 0 to disable the
+     * cache.
+     */
+    FRAME_CACHE_SIZE("frameTextCacheSize", "0"),
+
+    /**
+     * Adds a hash of the exception class names and the kept stack trace elements to the JSON output, so identical
+     * errors can be grouped without parsing the stack trace. The hash does not depend on how the stack trace is rendered.
+     */
+    FINGERPRINT("fingerprint", "false"),
+
+    /**
+     * The field name for the fingerprint of the stack trace in the JSON output.
+     */
+    FINGERPRINT_FIELD("fingerprintField", "fingerprint"),
+
+    /**
+     * The time window in milliseconds in which repeats of an exception with the same fingerprint are written without
+     * stack trace, only with the fingerprint and the occurrence counter. Use 0 to disable the repeat suppression.
+     */
+    REPEAT_WINDOW("repeatSuppressionWindowMillis", "0"),
+
+    /**
+     * The number of fingerprints tracked for the repeat suppression. A tracked fingerprint may be replaced by another one,
+     * which is rendered in full again.
+     */
+    REPEAT_TRACKER_SIZE("repeatTrackerSize", "1024"),
+
+    /**
+     * The field name for the occurrence counter of the repeat suppression in the JSON output.
+     */
+    OCCURRENCE_FIELD("occurrenceField", "occurrence"),
+
+    /**
+     * The format of the stack trace in the JSON output, see {@link StackFormat}. The keys {@code frames}, {@code class},
+     * {@code method}, {@code file}, {@code line} and {@code id} of the structured formats are fixed.
+     */
+    STACK_FORMAT("stackFormat", "string"),
+
+    /**
+     * The maximum number of stack trace elements in the frame dictionary. Rendered stack trace elements get a numeric id,
+     * they are written with their text on first sight and as id only afterwards. The ids are only valid within the output
+     * of one resolver, read in the order it rendered the events. Disables {@link #RENDER_CACHE_SIZE}. Use 0 to disable the
+     * dictionary.
+     */
+    FRAME_DICTIONARY_SIZE("frameDictionarySize", "0"),
+
+    /**
+     * Abbreviates the package names of the classes of the stack trace elements until the class name is not longer than
+     * this length, like Logback does. The simple class name is never abbreviated. Use 0 to disable the abbreviation.
+     */
+    CLASS_NAME_TARGET_LENGTH("classNameTargetLength", "0"),
+
+    /**
+     * The name of the JMX MBean exposing the metrics of the resolver, e.g. the name of the appender. Use an empty name to
+     * disable the metrics.
+     */
+    METRICS_NAME("metricsName", ""),
+
+    /**
+     * The name to update the package lists of the resolver at runtime with, see {@link StackTraceFilterRegistry}. Use an
+     * empty name to keep the configured lists.
+     */
+    FILTER_NAME("filterName", ""),
+
+    /**
+     * Policies per exception class name, which override how exceptions of the class and its subclasses are rendered,
+     * see {@link ExceptionPolicy}.
+     */
+    EXCEPTION_POLICIES("exceptionPolicies", "")
     ;
     
     private final String key;
@@ -0,0 +1,82 @@
+package org.glpste.logging.log4j2;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Finds the {@link ExceptionPolicy} of a throwable: the policy of its class or of the nearest superclass having one.
+ * <p>
+ * The policies are compiled once, the lists into their own {@link StackTraceFilter}, shared via
+ * {@link SharedStackTraceFilters}. The policy per throwable class is
+ * cached in a {@link ClassValue}, so the class hierarchy is walked once per class and not per event.
+ * </p>
+ */
+final class ExceptionPolicies {
+    private final Map<String, CompiledPolicy> policiesByClassName = new HashMap<>();
+    private final ClassValue<CompiledPolicy> policiesByClass = new ClassValue<CompiledPolicy>() {
+        @Override
+        protected CompiledPolicy computeValue(Class<?> type) {
+            for (Class<?> currentType = type; currentType != null; currentType = currentType.getSuperclass()) {
+                CompiledPolicy policy = policiesByClassName.get(currentType.getName());
+
+                if (policy != null) {
+                    return policy;
+                }
+            }
+
+            return CompiledPolicy.NONE;
+        }
+    };
+
+    /**
+     * @param policies    the policies per exception class name
+     * @param fieldConfig the configuration to complete the lists of a policy with
+     */
+    ExceptionPolicies(Map<String, ExceptionPolicy> policies, JsonTemplateFieldConfig fieldConfig) {
+        for (Map.Entry<String, ExceptionPolicy> entry : policies.entrySet()) {
+            policiesByClassName.put(entry.getKey(), new CompiledPolicy(entry.getValue(), fieldConfig));
+        }
+    }
+
+    /**
+     * @param throwableClass the class of the throwable
+     * @return the policy of the class, {@link CompiledPolicy#NONE} if there is none
+     */
+    CompiledPolicy get(Class<?> throwableClass) {
+        return policiesByClass.get(throwableClass);
+    }
+
+    static final class CompiledPolicy {
+        static final CompiledPolicy NONE = new CompiledPolicy();
+
+        /**
+         * The filter of the policy or {@code null} to use the filter of the resolver.
+         */
+        final StackTraceFilter stackTraceFilter;
+        /**
+         * The maximum number of rendered stacktrace elements or {@code null} to use the configured value.
+         */
+        final Integer maxRenderedFrames;
+        final boolean omitStack;
+
+        private CompiledPolicy() {
+            this.stackTraceFilter = null;
+            this.maxRenderedFrames = null;
+            this.omitStack = false;
+        }
+
+        private CompiledPolicy(ExceptionPolicy policy, JsonTemplateFieldConfig fieldConfig) {
+            if (policy.getAllowedPackages() != null || policy.getFilteredPackages() != null) {
+                this.stackTraceFilter = SharedStackTraceFilters.get(
+                        policy.getAllowedPackages() != null ? policy.getAllowedPackages() : fieldConfig.getAllowedPackages(),
+                        policy.getFilteredPackages() != null ? policy.getFilteredPackages() : fieldConfig.getFilteredPackages(),
+                        fieldConfig.getClassVerdictCacheSize());
+            } else {
+                this.stackTraceFilter = null;
+            }
+
+            this.maxRenderedFrames = policy.getMaxRenderedFrames();
+            this.omitStack = policy.isOmitStack();
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package org.glpste.logging.log4j2;
+
+import lombok.Getter;
+import org.apache.logging.log4j.layout.template.json.util.MapAccessor;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Overrides how exceptions of a class and its subclasses are rendered, e.g.
+ * <pre>
+ * "exceptionPolicies": {
+ *   "java.net.SocketTimeoutException": {"maxRenderedFrames": 3},
+ *   "com.example.ValidationException": {"omitStack": true}
+ * }
+ * </pre>
+ * Options which are not set are taken from the resolver configuration.
+ */
+@Getter
+public final class ExceptionPolicy {
+    static final String MAX_RENDERED_FRAMES = "maxRenderedFrames";
+    static final String OMIT_STACK = "omitStack";
+
+    /**
+     * The maximum number of rendered stacktrace elements, 0 for no limit or {@code null} to use the configured value.
+     */
+    private final Integer maxRenderedFrames;
+
+    /**
+     * The allowed packages or {@code null} to use the configured lists.
+     */
+    private final List<String> allowedPackages;
+
+    /**
+     * The filtered packages or {@code null} to use the configured lists.
+     */
+    private final List<String> filteredPackages;
+
+    /**
+     * Writes {@code null} instead of the stacktrace.
+     */
+    private final boolean omitStack;
+
+    /**
+     * @param maxRenderedFrames the maximum number of rendered stacktrace elements, {@code null} to use the configured value
+     * @param allowedPackages   the allowed packages, {@code null} to use the configured lists
+     * @param filteredPackages  the filtered packages, {@code null} to use the configured lists
+     * @param omitStack         {@code true} to write {@code null} instead of the stacktrace
+     */
+    public ExceptionPolicy(Integer maxRenderedFrames, List<String> allowedPackages, List<String> filteredPackages, boolean omitStack) {
+        this.maxRenderedFrames = maxRenderedFrames;
+        this.allowedPackages = allowedPackages;
+        this.filteredPackages = filteredPackages;
+        this.omitStack = omitStack;
+    }
+
+    /**
+     * Reads the policies from the resolver configuration.
+     *
+     * @param config the value of {@link ConfigProperty#EXCEPTION_POLICIES}, a JSON object with an object per class name
+     * @return the policies per class name or {@code null} if nothing is configured
+     * @throws IllegalArgumentException if the configuration is not a JSON object of JSON objects
+     */
+    @SuppressWarnings("unchecked")
+    static Map<String, ExceptionPolicy> fromConfig(Object config) {
+        if (config == null) {
+            return null;
+        }
+
+        if (!(config instanceof Map)) {
+            throw new IllegalArgumentException(ConfigProperty.EXCEPTION_POLICIES.getKey() + " must be an object: " + config);
+        }
+
+        Map<String, ExceptionPolicy> policies = new HashMap<>();
+
+        for (Map.Entry<String, Object> entry : ((Map<String, Object>) config).entrySet()) {
+            if (!(entry.getValue() instanceof Map)) {
+                throw new IllegalArgumentException("policy of " + entry.getKey() + " must be an object: " + entry.getValue());
+            }
+
+            MapAccessor policyConfig = new MapAccessor((Map<String, Object>) entry.getValue());
+
+            policies.put(entry.getKey(), new ExceptionPolicy(
+                    policyConfig.getInteger(MAX_RENDERED_FRAMES),
+                    policyConfig.getList(ConfigProperty.LIST_ALLOW.getKey(), String.class),
+                    policyConfig.getList(ConfigProperty.LIST_FILTER.getKey(), String.class),
+                    policyConfig.getBoolean(OMIT_STACK, false)));
+        }
+
+        return policies;
+    }
+}
@@ -25,6 +25,27 @@ class FilteredStacktraceExceptionResolver implements EventResolver {
                 .countField(resolverConfig.getString(ConfigProperty.COUNT.getKey()))
                 .allowedPackages(resolverConfig.getList(ConfigProperty.LIST_ALLOW.getKey(), String.class))
                 .filteredPackages(resolverConfig.getList(ConfigProperty.LIST_FILTER.getKey(), String.class))
+                .classVerdictCacheSize(resolverConfig.getInteger(ConfigProperty.VERDICT_CACHE_SIZE.getKey()))
+                .renderedStackTraceCacheSize(resolverConfig.getInteger(ConfigProperty.RENDER_CACHE_SIZE.getKey()))
+                .garbageFree(resolverConfig.getBoolean(ConfigProperty.GARBAGE_FREE.getKey()))
+                .elideCommonFrames(resolverConfig.getBoolean(ConfigProperty.ELIDE_COMMON_FRAMES.getKey()))
+                .collapseRecursion(resolverConfig.getBoolean(ConfigProperty.COLLAPSE_RECURSION.getKey()))
+                .maxCauseDepth(resolverConfig.getInteger(ConfigProperty.MAX_CAUSE_DEPTH.getKey()))
+                .suppressedExceptions(resolverConfig.getBoolean(ConfigProperty.SUPPRESSED.getKey()))
+                .maxRenderedFrames(resolverConfig.getInteger(ConfigProperty.MAX_RENDERED_FRAMES.getKey()))
+                .headAndTailTruncation(resolverConfig.getBoolean(ConfigProperty.HEAD_AND_TAIL.getKey()))
+                .frameTextCacheSize(resolverConfig.getInteger(ConfigProperty.FRAME_CACHE_SIZE.getKey()))
+                .fingerprint(resolverConfig.getBoolean(ConfigProperty.FINGERPRINT.getKey()))
+                .fingerprintField(resolverConfig.getString(ConfigProperty.FINGERPRINT_FIELD.getKey()))
+                .repeatSuppressionWindowMillis(resolverConfig.getInteger(ConfigProperty.REPEAT_WINDOW.getKey()))
+                .repeatTrackerSize(resolverConfig.getInteger(ConfigProperty.REPEAT_TRACKER_SIZE.getKey()))
+                .occurrenceField(resolverConfig.getString(ConfigProperty.OCCURRENCE_FIELD.getKey()))
+                .stackFormat(resolverConfig.getString(ConfigProperty.STACK_FORMAT.getKey()))
+                .frameDictionarySize(resolverConfig.getInteger(ConfigProperty.FRAME_DICTIONARY_SIZE.getKey()))
+                .classNameTargetLength(resolverConfig.getInteger(ConfigProperty.CLASS_NAME_TARGET_LENGTH.getKey()))
+                .metricsName(resolverConfig.getString(ConfigProperty.METRICS_NAME.getKey()))
+                .filterName(resolverConfig.getString(ConfigProperty.FILTER_NAME.getKey()))
+                .exceptionPolicies(ExceptionPolicy.fromConfig(resolverConfig.getObject(ConfigProperty.EXCEPTION_POLICIES.getKey())))
                 .build();
 
         this.internalResolver = new FilteredStacktraceStackTraceJsonResolver(context, fieldConfig);
@@ -0,0 +1,223 @@
+package org.glpste.logging.log4j2;
+
+import org.apache.logging.log4j.core.LoggerContext;
+import org.apache.logging.log4j.core.config.Configuration;
+import org.apache.logging.log4j.status.StatusLogger;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.lang.ref.WeakReference;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects the metrics of a resolver with {@link LongAdder}s, so threads don't contend when recording. The counts of an
+ * event are summed up while rendering and recorded once per event.
+ */
+final class FilteredStacktraceResolverMetrics implements FilteredStacktraceResolverMetricsMBean {
+    private static final String OBJECT_NAME_PREFIX = "org.glpste.logging.log4j2:type=FilteredStacktraceResolver,";
+
+    /**
+     * The registered MBeans, guarded by itself. The MBean server doesn't hand out the registered objects, so the owners
+     * of a name are looked up here.
+     */
+    private static final Map<ObjectName, FilteredStacktraceResolverMetrics> REGISTERED = new HashMap<>();
+    private static final Map<LoggerContext, Boolean> OBSERVED_CONTEXTS = new WeakHashMap<>();
+
+    private final LongAdder eventsResolved = new LongAdder();
+    private final LongAdder framesSeen = new LongAdder();
+    private final LongAdder framesFiltered = new LongAdder();
+    private final LongAdder causesWalked = new LongAdder();
+    private final LongAdder outputChars = new LongAdder();
+    private final LongAdder truncations = new LongAdder();
+    private final LongAdder resolveTimeNanos = new LongAdder();
+
+    private final WeakReference<FilteredStacktraceStackTraceJsonResolver> resolver;
+    private final WeakReference<Configuration> configuration;
+    private final WeakReference<LoggerContext> loggerContext;
+
+    /**
+     * The resolver, its configuration and logger context are referenced weakly, as the MBean server keeps the metrics
+     * until they are unregistered. The caches are looked up on every read, as they are replaced together with the
+     * package lists.
+     *
+     * @param resolver      the resolver to expose the caches of
+     * @param configuration the configuration of the resolver or {@code null} if unknown
+     */
+    FilteredStacktraceResolverMetrics(FilteredStacktraceStackTraceJsonResolver resolver, Configuration configuration) {
+        this.resolver = new WeakReference<>(resolver);
+        this.configuration = new WeakReference<>(configuration);
+        this.loggerContext = new WeakReference<>(configuration == null ? null : configuration.getLoggerContext());
+    }
+
+    /**
+     * Registers the metrics at the platform MBean server, with the name of the logger context in the object name. An
+     * MBean registered with the same name by the resolver of a previous configuration is replaced, one of a live resolver
+     * of the same configuration is kept and this one gets an {@code instance} key. The MBeans of a logger context are
+     * unregistered when it stops. Failures are reported to the status logger only, as metrics must never break logging.
+     *
+     * @param name the name of the MBean
+     * @return the name the MBean has been registered with or {@code null} if the registration failed
+     */
+    ObjectName register(String name) {
+        LoggerContext context = loggerContext.get();
+        String objectNamePrefix = OBJECT_NAME_PREFIX
+                + (context == null ? "" : "context=" + ObjectName.quote(context.getName()) + ",")
+                + "name=" + ObjectName.quote(name);
+
+        synchronized (REGISTERED) {
+            try {
+                MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+                ObjectName objectName = new ObjectName(objectNamePrefix);
+
+                if (isUsedBySameConfiguration(objectName)) {
+                    int instance = 2;
+
+                    while (isUsedBySameConfiguration(new ObjectName(objectNamePrefix + ",instance=" + instance))) {
+                        instance++;
+                    }
+
+                    objectName = new ObjectName(objectNamePrefix + ",instance=" + instance);
+                    StatusLogger.getLogger().warn("The metrics name {} is used by several filtered stacktrace resolvers, registering {}",
+                            name, objectName);
+                }
+
+                if (mBeanServer.isRegistered(objectName)) {
+                    mBeanServer.unregisterMBean(objectName);
+                }
+
+                mBeanServer.registerMBean(this, objectName);
+                REGISTERED.put(objectName, this);
+
+                if (context != null && OBSERVED_CONTEXTS.put(context, Boolean.TRUE) == null) {
+                    context.addShutdownListener(FilteredStacktraceResolverMetrics::unregister);
+                }
+
+                return objectName;
+            } catch (JMException e) {
+                StatusLogger.getLogger().warn("Unable to register the metrics of the filtered stacktrace resolver {}", name, e);
+
+                return null;
+            }
+        }
+    }
+
+    private boolean isUsedBySameConfiguration(ObjectName objectName) {
+        FilteredStacktraceResolverMetrics registered = REGISTERED.get(objectName);
+        Configuration owner = configuration.get();
+
+        return registered != null && owner != null && registered.configuration.get() == owner && registered.resolver.get() != null;
+    }
+
+    /**
+     * Unregisters the MBeans of a stopped logger context, which would keep the metrics and their class loader otherwise.
+     */
+    private static void unregister(org.apache.logging.log4j.spi.LoggerContext context) {
+        synchronized (REGISTERED) {
+            MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+            Iterator<Map.Entry<ObjectName, FilteredStacktraceResolverMetrics>> iterator = REGISTERED.entrySet().iterator();
+
+            while (iterator.hasNext()) {
+                Map.Entry<ObjectName, FilteredStacktraceResolverMetrics> entry = iterator.next();
+
+                if (entry.getValue().loggerContext.get() == context) {
+                    iterator.remove();
+
+                    try {
+                        mBeanServer.unregisterMBean(entry.getKey());
+                    } catch (JMException e) {
+                        StatusLogger.getLogger().warn("Unable to unregister the metrics of the filtered stacktrace resolver {}",
+                                entry.getKey(), e);
+                    }
+                }
+            }
+
+            OBSERVED_CONTEXTS.remove(context);
+        }
+    }
+
+    void record(long framesSeen, long framesFiltered, long causesWalked, long outputChars, boolean truncated, long resolveTimeNanos) {
+        this.eventsResolved.increment();
+        this.framesSeen.add(framesSeen);
+        this.framesFiltered.add(framesFiltered);
+        this.causesWalked.add(causesWalked);
+        this.outputChars.add(outputChars);
+        this.resolveTimeNanos.add(resolveTimeNanos);
+
+        if (truncated) {
+            this.truncations.increment();
+        }
+    }
+
+    @Override
+    public long getEventsResolved() {
+        return eventsResolved.sum();
+    }
+
+    @Override
+    public long getFramesSeen() {
+        return framesSeen.sum();
+    }
+
+    @Override
+    public long getFramesFiltered() {
+        return framesFiltered.sum();
+    }
+
+    @Override
+    public long getCausesWalked() {
+        return causesWalked.sum();
+    }
+
+    @Override
+    public long getOutputChars() {
+        return outputChars.sum();
+    }
+
+    @Override
+    public long getTruncations() {
+        return truncations.sum();
+    }
+
+    @Override
+    public long getResolveTimeNanos() {
+        return resolveTimeNanos.sum();
+    }
+
+    @Override
+    public double getVerdictCacheHitRatio() {
+        FilteredStacktraceStackTraceJsonResolver currentResolver = resolver.get();
+
+        return currentResolver == null ? Double.NaN : hitRatio(currentResolver.getStackTraceFilter().getVerdictCache());
+    }
+
+    @Override
+    public double getRenderedStackTraceCacheHitRatio() {
+        FilteredStacktraceStackTraceJsonResolver currentResolver = resolver.get();
+
+        return currentResolver == null ? Double.NaN : hitRatio(currentResolver.getRenderedStackTraceCache());
+    }
+
+    @Override
+    public double getFrameTextCacheHitRatio() {
+        FilteredStacktraceStackTraceJsonResolver currentResolver = resolver.get();
+
+        return currentResolver == null ? Double.NaN : hitRatio(currentResolver.getFrameTextCache());
+    }
+
+    private static double hitRatio(BoundedCache<?, ?> cache) {
+        if (cache == null) {
+            return Double.NaN;
+        }
+
+        long hits = cache.hitCount();
+        long lookups = hits + cache.missCount();
+
+        return lookups == 0 ? Double.NaN : (double) hits / lookups;
+    }
+}
@@ -0,0 +1,57 @@
+package org.glpste.logging.log4j2;
+
+/**
+ * Metrics of a {@code filteredStacktraceException} resolver, exposed via JMX. Enable them with
+ * {@link ConfigProperty#METRICS_NAME}.
+ */
+public interface FilteredStacktraceResolverMetricsMBean {
+    /**
+     * @return the number of resolved exceptions
+     */
+    long getEventsResolved();
+
+    /**
+     * @return the number of stacktrace elements classified
+     */
+    long getFramesSeen();
+
+    /**
+     * @return the number of stacktrace elements removed by the filter
+     */
+    long getFramesFiltered();
+
+    /**
+     * @return the number of throwables rendered, including causes and suppressed exceptions
+     */
+    long getCausesWalked();
+
+    /**
+     * @return the number of chars written to the JSON output
+     */
+    long getOutputChars();
+
+    /**
+     * @return the number of stacktraces cut off because they exceeded the max. string length
+     */
+    long getTruncations();
+
+    /**
+     * @return the total time spent resolving exceptions in nanoseconds
+     */
+    long getResolveTimeNanos();
+
+    /**
+     * @return the hit ratio of the class verdict cache or {@code NaN} if the cache is disabled or unused
+     */
+    double getVerdictCacheHitRatio();
+
+    /**
+     * @return the hit ratio of the rendered stacktrace cache or {@code NaN} if the cache is disabled or unused
+     */
+    double getRenderedStackTraceCacheHitRatio();
+
+    /**
+     * @return the hit ratio of the frame text cache or {@code NaN} if the cache is disabled or unused
+     */
+    double getFrameTextCacheHitRatio();
+}
@@ -1,17 +1,16 @@
 package org.glpste.logging.log4j2;
 
+import org.apache.logging.log4j.core.config.Configuration;
 import org.apache.logging.log4j.layout.template.json.resolver.EventResolverContext;
 import org.apache.logging.log4j.layout.template.json.resolver.TemplateResolver;
 import org.apache.logging.log4j.layout.template.json.util.JsonWriter;
 import org.apache.logging.log4j.layout.template.json.util.Recycler;
 import org.apache.logging.log4j.layout.template.json.util.RecyclerFactory;
-import org.apache.logging.log4j.layout.template.json.util.TruncatingBufferedPrintWriter;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
-import java.util.function.Supplier;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Holds the logic on how to delete irrelevant stacktrace lines and formats the stacktrace showing all "Caused by".
@@ -21,145 +20,938 @@ import java.util.function.Supplier;
  * </p>
  */
 class FilteredStacktraceStackTraceJsonResolver implements TemplateResolver<Throwable> {
-    private final Recycler<TruncatingBufferedPrintWriter> destWriterRecycler;
-    private final List<String> filteredPackages;
-    private final List<String> allowedPackages;
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+    /**
+     * Longest sequence of stacktrace elements detected as repeated. Recursions usually consist of a few frames only.
+     */
+    private static final int MAX_CYCLE_LENGTH = 16;
+    private static final int MIN_REPETITIONS = 3;
+    /**
+     * Frame budget if suppressed exceptions are rendered without {@code maxRenderedFrames}, as the tree of suppressed
+     * exceptions has no bound otherwise.
+     */
+    static final int SUPPRESSED_FRAME_BUDGET = 1024;
+
+    private final Recycler<RenderState> renderStateRecycler;
+    private final int maxStringByteCount;
+    private final ReloadableStackTraceFilter stackTraceFilter;
     private final JsonTemplateFieldConfig fieldConfig;
+    private volatile RenderCache renderCache;
+    private final int maxCauseDepth;
+    private final BoundedCache<StackTraceElement, JsonStringSink.EscapedText> frameTextCache;
+    private final RepeatTracker repeatTracker;
+    private final StackFormat stackFormat;
+    private final BoundedCache<StackTraceElement, Integer> frameDictionary;
+    private final AtomicInteger lastFrameId = new AtomicInteger();
+    private final ClassNameAbbreviator classNameAbbreviator;
+    private final FilteredStacktraceResolverMetrics metrics;
+    private final ExceptionPolicies exceptionPolicies;
 
     FilteredStacktraceStackTraceJsonResolver(EventResolverContext context, JsonTemplateFieldConfig fieldConfig) {
-        final Supplier<TruncatingBufferedPrintWriter> writerSupplier = () -> TruncatingBufferedPrintWriter.ofCapacity(context.getMaxStringByteCount());
-        final RecyclerFactory recyclerFactory = context.getRecyclerFactory();
+        this(context.getRecyclerFactory(), context.getMaxStringByteCount(), fieldConfig, context.getConfiguration());
+    }
+
+    FilteredStacktraceStackTraceJsonResolver(RecyclerFactory recyclerFactory, int maxStringByteCount, JsonTemplateFieldConfig fieldConfig) {
+        this(recyclerFactory, maxStringByteCount, fieldConfig, null);
+    }
 
+    FilteredStacktraceStackTraceJsonResolver(RecyclerFactory recyclerFactory, int maxStringByteCount, JsonTemplateFieldConfig fieldConfig,
+                                             Configuration configuration) {
         if (fieldConfig.getAllowedPackages() == null) {
             throw new IllegalArgumentException();
         }
 
-        this.destWriterRecycler = recyclerFactory.create(writerSupplier, TruncatingBufferedPrintWriter::close);
-        this.filteredPackages = fieldConfig.getFilteredPackages();
-        this.allowedPackages = fieldConfig.getAllowedPackages();
+        this.renderStateRecycler = recyclerFactory.create(RenderState::new);
+        this.maxStringByteCount = maxStringByteCount;
+        this.stackTraceFilter = new ReloadableStackTraceFilter(fieldConfig.getAllowedPackages(), fieldConfig.getFilteredPackages(),
+                fieldConfig.getClassVerdictCacheSize());
         this.fieldConfig = fieldConfig;
+        // a cached rendering would replay frame ids, which depend on the events rendered before
+        this.renderCache = fieldConfig.getRenderedStackTraceCacheSize() > 0 && fieldConfig.getFrameDictionarySize() <= 0
+                ? new RenderCache(stackTraceFilter.get(), fieldConfig.getRenderedStackTraceCacheSize())
+                : null;
+        this.maxCauseDepth = fieldConfig.getMaxCauseDepth() > 0
+                ? fieldConfig.getMaxCauseDepth()
+                : Integer.parseInt(ConfigProperty.MAX_CAUSE_DEPTH.getDefaultValue());
+        this.frameTextCache = fieldConfig.getFrameTextCacheSize() > 0
+                ? new BoundedCache<>(fieldConfig.getFrameTextCacheSize())
+                : null;
+        this.stackFormat = StackFormat.of(fieldConfig.getStackFormat());
+        this.classNameAbbreviator = fieldConfig.getClassNameTargetLength() > 0
+                ? new ClassNameAbbreviator(fieldConfig.getClassNameTargetLength(), ClassNameAbbreviator.CACHE_SIZE)
+                : null;
+        this.frameDictionary = fieldConfig.getFrameDictionarySize() > 0
+                ? new BoundedCache<>(fieldConfig.getFrameDictionarySize())
+                : null;
+        this.repeatTracker = fieldConfig.getRepeatSuppressionWindowMillis() > 0
+                ? new RepeatTracker(Math.max(1, fieldConfig.getRepeatTrackerSize()), fieldConfig.getRepeatSuppressionWindowMillis())
+                : null;
+
+        this.exceptionPolicies = fieldConfig.getExceptionPolicies() != null && !fieldConfig.getExceptionPolicies().isEmpty()
+                ? new ExceptionPolicies(fieldConfig.getExceptionPolicies(), fieldConfig)
+                : null;
+
+        if (fieldConfig.getFilterName() != null && !fieldConfig.getFilterName().isEmpty()) {
+            StackTraceFilterRegistry.register(fieldConfig.getFilterName(), stackTraceFilter);
+        }
+
+        // registered last, so a resolver failing to be created doesn't leave an MBean behind
+        if (fieldConfig.getMetricsName() != null && !fieldConfig.getMetricsName().isEmpty()) {
+            this.metrics = new FilteredStacktraceResolverMetrics(this, configuration);
+            this.metrics.register(fieldConfig.getMetricsName());
+        } else {
+            this.metrics = null;
+        }
     }
 
+    /**
+     * Writes the JSON object field by field into the writer. The stacktrace is escaped while it is rendered, so no
+     * intermediate map or {@link String} is created.
+     */
     @Override
     public void resolve(Throwable throwable, JsonWriter jsonWriter) {
-        Map<String, Object> jsonAttributes = new HashMap<>();
-        List<Cause> allCauses = flattenAndFilterAllCauses(throwable);
+        if (metrics == null) {
+            resolve(throwable, jsonWriter, null);
+
+            return;
+        }
+
+        long startTime = System.nanoTime();
+        int startLength = jsonWriter.getStringBuilder().length();
+        RenderState renderState = renderStateRecycler.acquire();
+
+        try {
+            resolve(throwable, jsonWriter, renderState);
+
+            metrics.record(renderState.framesSeen, renderState.filteredLines, renderState.causesWalked,
+                    jsonWriter.getStringBuilder().length() - startLength, renderState.truncated, System.nanoTime() - startTime);
+        } finally {
+            renderStateRecycler.release(renderState);
+        }
+    }
+
+    /**
+     * @param givenRenderState the state to render with, {@code null} to acquire one
+     */
+    private void resolve(Throwable throwable, JsonWriter jsonWriter, RenderState givenRenderState) {
+        RenderState renderState = givenRenderState != null ? givenRenderState : renderStateRecycler.acquire();
+
+        try {
+            renderState.clearStatistics();
+            // the same filter for the whole event, even if it is replaced meanwhile
+            renderState.configuredStackTraceFilter = stackTraceFilter.get();
+            applyExceptionPolicy(throwable, renderState);
+
+            long occurrence = 0;
+
+            if (repeatTracker != null) {
+                renderState.fingerprint = computeFingerprint(throwable, renderState.stackTraceFilter);
+                occurrence = repeatTracker.recordOccurrence(renderState.fingerprint);
+            }
+
+            jsonWriter.writeObjectStart();
+
+            jsonWriter.writeObjectKey(fieldConfig.getNameField());
+            jsonWriter.writeString(throwable.getClass().getName());
+            jsonWriter.writeSeparator();
+
+            jsonWriter.writeObjectKey(fieldConfig.getMessageField());
+            jsonWriter.writeString(throwable.getMessage());
+
+            if (occurrence > 1) {
+                // a repeat within the window, the stacktrace has been written with the first occurrence
+                writeFingerprint(renderState.fingerprint, jsonWriter);
+                writeOccurrence(occurrence, jsonWriter);
+                jsonWriter.writeObjectEnd();
+
+                return;
+            }
+
+            jsonWriter.writeSeparator();
+
+            jsonWriter.writeObjectKey(fieldConfig.getStackField());
+
+            if (renderState.omitStack) {
+                jsonWriter.writeNull();
+                updateFingerprint(throwable, renderState);
+            } else {
+                writeStackTrace(throwable, jsonWriter, renderState);
+            }
+
+            jsonWriter.writeSeparator();
+
+            jsonWriter.writeObjectKey(fieldConfig.getCountField());
+            jsonWriter.writeNumber(renderState.filteredLines);
+
+            if (repeatTracker != null) {
+                // the fingerprint of the repeats
+                writeFingerprint(renderState.fingerprint, jsonWriter);
+                writeOccurrence(occurrence, jsonWriter);
+            } else if (fieldConfig.isFingerprint()) {
+                writeFingerprint(renderState.fingerprint, jsonWriter);
+            }
 
-        try (TruncatingBufferedPrintWriter stacktraceAsStringWriter = destWriterRecycler.acquire()) {
-            int totalLinesFiltered = 0;
-            boolean firstCause = true;
+            jsonWriter.writeObjectEnd();
+        } finally {
+            if (givenRenderState == null) {
+                renderStateRecycler.release(renderState);
+            }
+        }
+    }
+
+    /**
+     * Sets the filter, the frame limit and whether to omit the stack in the render state, as configured or as overridden
+     * by the policy of the exception class.
+     */
+    private void applyExceptionPolicy(Throwable throwable, RenderState renderState) {
+        ExceptionPolicies.CompiledPolicy policy = exceptionPolicies != null
+                ? exceptionPolicies.get(throwable.getClass())
+                : ExceptionPolicies.CompiledPolicy.NONE;
+
+        renderState.stackTraceFilter = policy.stackTraceFilter != null ? policy.stackTraceFilter : renderState.configuredStackTraceFilter;
+        renderState.maxRenderedFrames = policy.maxRenderedFrames != null ? policy.maxRenderedFrames : fieldConfig.getMaxRenderedFrames();
+
+        if (renderState.maxRenderedFrames <= 0 && fieldConfig.isSuppressedExceptions()) {
+            renderState.maxRenderedFrames = SUPPRESSED_FRAME_BUDGET;
+        }
+        renderState.omitStack = policy.omitStack;
+    }
+
+    /**
+     * @return the current filter, shared with other resolvers using the same package lists
+     */
+    StackTraceFilter getStackTraceFilter() {
+        return stackTraceFilter.get();
+    }
+
+    /**
+     * @return the cache of rendered stacktraces or {@code null} if caching is disabled
+     */
+    BoundedCache<StackTraceKey, RenderedStackTrace> getRenderedStackTraceCache() {
+        RenderCache currentRenderCache = renderCache;
+
+        return currentRenderCache == null ? null : currentRenderCache.entries;
+    }
+
+    /**
+     * @return the ids of the stacktrace elements or {@code null} if the frame dictionary is disabled
+     */
+    BoundedCache<StackTraceElement, Integer> getFrameDictionary() {
+        return frameDictionary;
+    }
+
+    /**
+     * @return the cache of rendered stacktrace elements or {@code null} if caching is disabled
+     */
+    BoundedCache<StackTraceElement, JsonStringSink.EscapedText> getFrameTextCache() {
+        return frameTextCache;
+    }
+
+    private void writeFingerprint(long fingerprint, JsonWriter jsonWriter) {
+        jsonWriter.writeSeparator();
+        jsonWriter.writeObjectKey(fieldConfig.getFingerprintField());
+
+        // hex digits need no escaping
+        StringBuilder jsonBuffer = jsonWriter.getStringBuilder();
+        jsonBuffer.append('"');
+        Fingerprint.appendHex(fingerprint, jsonBuffer);
+        jsonBuffer.append('"');
+    }
+
+    private void writeOccurrence(long occurrence, JsonWriter jsonWriter) {
+        jsonWriter.writeSeparator();
+        jsonWriter.writeObjectKey(fieldConfig.getOccurrenceField());
+        jsonWriter.writeNumber(occurrence);
+    }
+
+    /**
+     * Computes the fingerprint of the throwable for the output, unless the repeat tracking did already.
+     */
+    private void updateFingerprint(Throwable throwable, RenderState renderState) {
+        if (fieldConfig.isFingerprint() && repeatTracker == null) {
+            renderState.fingerprint = computeFingerprint(throwable, renderState.stackTraceFilter);
+        }
+    }
+
+    /**
+     * Computes the fingerprint: the exception class names and all kept stacktrace elements of the cause chain. It does
+     * not depend on how the stacktrace is presented, elided, collapsed, limited or truncated elements are included.
+     */
+    private long computeFingerprint(Throwable root, StackTraceFilter stackTraceFilter) {
+        long fingerprint = Fingerprint.INITIAL_VALUE;
+        Throwable throwable = root;
+
+        for (int depth = 0; throwable != null && depth <= maxCauseDepth; depth++) {
+            if (depth > 0 && CauseChain.indexOf(root, throwable, depth) >= 0) {
+                break;
+            }
 
-            stacktraceAsStringWriter.append(String.format("%s: %s", throwable.getClass().getName(), throwable.getMessage()));
+            fingerprint = Fingerprint.hash(fingerprint, throwable.getClass());
 
-            for (Cause cause : allCauses) {
-                if (!firstCause) {
-                    // write a "Caused by" including cause message, like Java's native stack exporter.
-                    stacktraceAsStringWriter.append(System.lineSeparator());
-                    stacktraceAsStringWriter.append(String.format("Caused by %s: %s", cause.throwable.getClass().getName(), cause.throwable.getMessage()));
+            for (StackTraceElement stackTraceElement : throwable.getStackTrace()) {
+                if (!stackTraceFilter.isFiltered(stackTraceElement)) {
+                    fingerprint = Fingerprint.hash(fingerprint, stackTraceElement);
                 }
+            }
 
-                int currentFilteredLines = 0;
-                firstCause = false;
-
-                for (FilteredStacktraceElement stacktraceElement : cause.filteredStacktraceElements) {
-                    if (!stacktraceElement.filtered) {
-                        if (currentFilteredLines > 0) {
-                            stacktraceAsStringWriter.append(System.lineSeparator());
-                            stacktraceAsStringWriter.append(String.format("\t[suppressed %d lines]", currentFilteredLines));
-                            currentFilteredLines = 0;
-                        }
-
-                        stacktraceAsStringWriter.append(System.lineSeparator());
-                        stacktraceAsStringWriter.append(String.format("\tat %s", stacktraceElement.stackTraceElement));
-                    } else {
-                        currentFilteredLines++;
-                        totalLinesFiltered++;
-                    }
+            throwable = throwable.getCause();
+        }
+
+        return fingerprint;
+    }
+
+    /**
+     * Writes the stacktrace and leaves the number of filtered elements and the fingerprint in the render state.
+     */
+    private void writeStackTrace(Throwable throwable, JsonWriter jsonWriter, RenderState renderState) {
+        // the key does not cover suppressed exceptions
+        RenderCache currentRenderCache = renderCache;
+
+        if (currentRenderCache == null || fieldConfig.isSuppressedExceptions() && hasSuppressedExceptions(throwable)) {
+            render(throwable, jsonWriter, renderState);
+            updateFingerprint(throwable, renderState);
+
+            return;
+        }
+
+        // the filters of the exception policies never change, the key covers the exception class
+        if (currentRenderCache.stackTraceFilter != renderState.configuredStackTraceFilter) {
+            // rendered with replaced package lists, racing threads may create a cache each but one of them wins soon
+            currentRenderCache = new RenderCache(renderState.configuredStackTraceFilter, fieldConfig.getRenderedStackTraceCacheSize());
+            renderCache = currentRenderCache;
+        }
+
+        BoundedCache<StackTraceKey, RenderedStackTrace> renderedStackTraceCache = currentRenderCache.entries;
+        StackTraceKey key = StackTraceKey.of(throwable, maxCauseDepth);
+        RenderedStackTrace renderedStackTrace = renderedStackTraceCache.get(key);
+
+        if (renderedStackTrace != null) {
+            jsonWriter.writeRawString(renderedStackTrace.escapedStackTrace);
+            renderState.filteredLines = renderedStackTrace.filteredElements;
+            renderState.fingerprint = renderedStackTrace.fingerprint;
+
+            return;
+        }
+
+        StringBuilder jsonBuffer = jsonWriter.getStringBuilder();
+        int startIndex = jsonBuffer.length();
+        render(throwable, jsonWriter, renderState);
+        updateFingerprint(throwable, renderState);
+
+        // the escaped JSON string is cached, so a hit is a plain copy
+        renderedStackTraceCache.putIfAbsent(key, new RenderedStackTrace(jsonBuffer.substring(startIndex),
+                renderState.filteredLines, renderState.fingerprint));
+    }
+
+    private boolean hasSuppressedExceptions(Throwable throwable) {
+        for (int depth = 0; throwable != null && depth <= maxCauseDepth; depth++) {
+            if (throwable.getSuppressed().length > 0) {
+                return true;
+            }
+
+            throwable = throwable.getCause();
+        }
+
+        return false;
+    }
+
+    /**
+     * Renders the throwable and all its causes. The stacktrace elements are classified while they are written, so no
+     * intermediate structures are created.
+     */
+    private void render(Throwable throwable, JsonWriter jsonWriter, RenderState renderState) {
+        if (stackFormat != StackFormat.STRING) {
+            renderStructured(throwable, jsonWriter, renderState);
+
+            return;
+        }
+
+        try {
+            renderState.open(jsonWriter, maxStringByteCount, renderState.maxRenderedFrames, fieldConfig.isHeadAndTailTruncation());
+
+            renderCauseChain(throwable, null, null, 0, renderState);
+        } finally {
+            renderState.close();
+        }
+    }
+
+    /**
+     * Writes an array with an object per cause straight through the writer. Causes and stacktrace elements are limited
+     * like in the string format, but nothing is elided, collapsed or truncated in the middle.
+     */
+    private void renderStructured(Throwable root, JsonWriter jsonWriter, RenderState renderState) {
+        renderState.reset(renderState.maxRenderedFrames);
+
+        jsonWriter.writeArrayStart();
+
+        Throwable throwable = root;
+
+        for (int depth = 0; throwable != null && depth <= maxCauseDepth; depth++) {
+            if (depth > 0) {
+                if (CauseChain.indexOf(root, throwable, depth) >= 0) {
+                    break;
                 }
 
-                // in case the filtered stacktrace elements are at the end
-                if (currentFilteredLines > 0) {
-                    stacktraceAsStringWriter.append(System.lineSeparator());
-                    stacktraceAsStringWriter.append(String.format("\t[suppressed %d lines]", currentFilteredLines));
+                jsonWriter.writeSeparator();
+            }
+
+            writeCause(throwable, jsonWriter, renderState);
+            throwable = throwable.getCause();
+        }
+
+        jsonWriter.writeArrayEnd();
+    }
+
+    private void writeCause(Throwable throwable, JsonWriter jsonWriter, RenderState renderState) {
+        renderState.causesWalked++;
+
+        jsonWriter.writeObjectStart();
+
+        jsonWriter.writeObjectKey(fieldConfig.getNameField());
+        jsonWriter.writeString(throwable.getClass().getName());
+        jsonWriter.writeSeparator();
+
+        jsonWriter.writeObjectKey(fieldConfig.getMessageField());
+        jsonWriter.writeString(throwable.getMessage());
+        jsonWriter.writeSeparator();
+
+        jsonWriter.writeObjectKey("frames");
+        jsonWriter.writeArrayStart();
+
+        int filteredLines = 0;
+        boolean firstFrame = true;
+
+        for (StackTraceElement stackTraceElement : throwable.getStackTrace()) {
+            renderState.framesSeen++;
+
+            if (renderState.stackTraceFilter.isFiltered(stackTraceElement)) {
+                filteredLines++;
+            } else if (renderState.remainingFrames > 0) {
+                if (!firstFrame) {
+                    jsonWriter.writeSeparator();
                 }
+
+                writeFrame(stackTraceElement, jsonWriter, renderState);
+                firstFrame = false;
+                renderState.remainingFrames--;
+            }
+        }
+
+        jsonWriter.writeArrayEnd();
+        jsonWriter.writeSeparator();
+
+        jsonWriter.writeObjectKey(fieldConfig.getCountField());
+        jsonWriter.writeNumber(filteredLines);
+
+        jsonWriter.writeObjectEnd();
+
+        renderState.filteredLines += filteredLines;
+    }
+
+    private void writeFrame(StackTraceElement stackTraceElement, JsonWriter jsonWriter, RenderState renderState) {
+        if (stackFormat == StackFormat.ARRAY) {
+            renderState.sink.open(jsonWriter, maxStringByteCount);
+            appendStackTraceElement(stackTraceElement, renderState.sink);
+            renderState.sink.close();
+
+            return;
+        }
+
+        jsonWriter.writeObjectStart();
+
+        int newFrameId = 0;
+
+        if (frameDictionary != null) {
+            Integer frameId = frameDictionary.get(stackTraceElement);
+
+            jsonWriter.writeObjectKey("id");
+
+            if (frameId != null) {
+                jsonWriter.writeNumber(frameId);
+                jsonWriter.writeObjectEnd();
+
+                return;
             }
 
-            jsonAttributes.put(fieldConfig.getStackField(), stacktraceAsStringWriter.toString());
-            jsonAttributes.put(fieldConfig.getCountField(), totalLinesFiltered);
+            newFrameId = lastFrameId.incrementAndGet();
+            jsonWriter.writeNumber(newFrameId);
+            jsonWriter.writeSeparator();
         }
 
-        jsonAttributes.put(fieldConfig.getMessageField(), throwable.getMessage());
-        jsonAttributes.put(fieldConfig.getNameField(), throwable.getClass().getName());
+        String className = abbreviate(stackTraceElement.getClassName());
+
+        jsonWriter.writeObjectKey("class");
+        jsonWriter.writeString(className);
+        jsonWriter.writeSeparator();
+
+        jsonWriter.writeObjectKey("method");
+        jsonWriter.writeString(stackTraceElement.getMethodName());
+        jsonWriter.writeSeparator();
+
+        jsonWriter.writeObjectKey("file");
+        jsonWriter.writeString(stackTraceElement.getFileName());
+        jsonWriter.writeSeparator();
+
+        jsonWriter.writeObjectKey("line");
+        jsonWriter.writeNumber(stackTraceElement.getLineNumber());
+
+        jsonWriter.writeObjectEnd();
+
+        // the id is only known to the reader if the text was written in full, a truncated string doesn't define it
+        if (newFrameId > 0 && fitsIntoString(className) && fitsIntoString(stackTraceElement.getMethodName())
+                && fitsIntoString(stackTraceElement.getFileName())) {
+            addToFrameDictionary(stackTraceElement, newFrameId);
+        }
+    }
 
-        jsonWriter.writeObject(jsonAttributes);
+    private boolean fitsIntoString(String value) {
+        return value == null || value.length() <= maxStringByteCount;
     }
 
-    private List<Cause> flattenAndFilterAllCauses(Throwable throwable) {
-        List<Cause> allCauses = new ArrayList<>();
+    /**
+     * Renders the throwable, its causes and, if enabled, their suppressed exceptions.
+     *
+     * @param root                the first throwable to render
+     * @param enclosingStackTrace the stacktrace of the throwable enclosing a suppressed exception, {@code null} otherwise
+     * @param caption             written in front of the root, {@code null} for the outermost throwable
+     * @param indent              the number of tabs in front of every line
+     */
+    private void renderCauseChain(Throwable root, StackTraceElement[] enclosingStackTrace, String caption, int indent,
+                                  RenderState renderState) {
+        JsonStringSink stacktraceSink = renderState.sink;
+        Throwable throwable = root;
+        // only the root cause of the outermost throwable is kept when truncating the middle
+        int rootCauseIndex = caption == null && fieldConfig.isHeadAndTailTruncation()
+                ? Math.min(CauseChain.countDistinct(root), maxCauseDepth + 1) - 1
+                : -1;
+
+        for (int depth = 0; throwable != null; depth++) {
+            if (depth > 0 && appendEndOfCauseChain(root, throwable, depth, indent, renderState)) {
+                break;
+            }
+
+            // the root cause is rendered in any case, even if it directly follows the head
+            if (depth > 0 && depth < rootCauseIndex && renderState.isLimitReached()) {
+                appendCausesOmitted(rootCauseIndex - depth, "", indent, stacktraceSink);
+
+                enclosingStackTrace = CauseChain.get(root, rootCauseIndex - 1).getStackTrace();
+                throwable = CauseChain.get(root, rootCauseIndex);
+                depth = rootCauseIndex;
+            } else if (depth > 0 && depth != rootCauseIndex && renderState.isLimitReached()) {
+                appendCausesOmitted(CauseChain.countDistinct(root) - depth, " more", indent, stacktraceSink);
+
+                break;
+            }
+
+            if (depth == rootCauseIndex) {
+                // the remaining budget belongs to the root cause
+                renderState.liftLengthLimit();
+            }
+
+            if (depth > 0) {
+                // write a "Caused by" including cause message, like Java's native stack exporter.
+                appendLineStart(indent, stacktraceSink).append("Caused by ");
+            } else if (caption != null) {
+                appendLineStart(indent, stacktraceSink).append(caption);
+            }
+
+            renderState.causesWalked++;
+
+            StackTraceElement[] stackTrace = throwable.getStackTrace();
+            int framesInCommon = fieldConfig.isElideCommonFrames() && enclosingStackTrace != null
+                    ? countFramesInCommon(stackTrace, enclosingStackTrace)
+                    : 0;
 
-        Throwable lastThrowable = null;
+            stacktraceSink.append(throwable.getClass().getName()).append(": ").append(throwable.getMessage());
 
-        while (throwable != null && lastThrowable != throwable) {
-            List<FilteredStacktraceElement> filteredStacktraceElements = applyStacktraceFilter(throwable.getStackTrace());
-            allCauses.add(new Cause(throwable, filteredStacktraceElements));
+            renderState.filteredLines += renderStackTraceElements(stackTrace, stackTrace.length - framesInCommon, indent, renderState);
+
+            if (framesInCommon > 0) {
+                appendLineStart(indent, stacktraceSink).append("\t... ").append(framesInCommon).append(" more");
+            }
+
+            if (fieldConfig.isSuppressedExceptions()) {
+                renderState.renderedThrowables.add(throwable);
+                renderSuppressedExceptions(throwable.getSuppressed(), stackTrace, indent, renderState);
+            }
 
-            lastThrowable = throwable;
+            enclosingStackTrace = stackTrace;
             throwable = throwable.getCause();
         }
-
-        return allCauses;
     }
 
-    private boolean classIsInFilteredPackage(String className) {
-        for (String prefix : allowedPackages) {
-            if (className.startsWith(prefix)) {
-                return false;
+    private void renderSuppressedExceptions(Throwable[] suppressedExceptions, StackTraceElement[] enclosingStackTrace,
+                                            int indent, RenderState renderState) {
+        for (int i = 0; i < suppressedExceptions.length; i++) {
+            Throwable suppressedException = suppressedExceptions[i];
+
+            if (renderState.remainingFrames <= 0 || indent >= maxCauseDepth || renderState.isLimitReached()) {
+                appendLineStart(indent, renderState.sink).append("\t[").append(suppressedExceptions.length - i)
+                        .append(" suppressed exceptions omitted]");
+
+                return;
+            }
+
+            if (renderState.renderedThrowables.contains(suppressedException)) {
+                appendCircularReference(suppressedException, indent, renderState.sink);
+            } else {
+                renderCauseChain(suppressedException, enclosingStackTrace, "Suppressed: ", indent + 1, renderState);
             }
         }
+    }
+
+    /**
+     * Writes a marker instead of the cause if it has been rendered already (circular reference) or if the max. cause depth
+     * is exceeded.
+     *
+     * @return {@code true} if the rendering of the cause chain has to stop
+     */
+    private boolean appendEndOfCauseChain(Throwable root, Throwable cause, int depth, int indent, RenderState renderState) {
+        if (CauseChain.indexOf(root, cause, depth) >= 0 || renderState.renderedThrowables.contains(cause)) {
+            appendCircularReference(cause, indent, renderState.sink);
 
-        // if a whitelist is present everything else is blacklisted
-        if (! allowedPackages.isEmpty()) {
             return true;
         }
 
-        for (String prefix : filteredPackages) {
-            if (className.startsWith(prefix)) {
-                return true;
-            }
+        if (depth > maxCauseDepth) {
+            // the rendered throwables are distinct and the start of the chain
+            appendCausesOmitted(CauseChain.countDistinct(root) - depth, " more", indent, renderState.sink);
+
+            return true;
         }
 
         return false;
     }
 
-    private List<FilteredStacktraceElement> applyStacktraceFilter(final StackTraceElement[] stacktraceElements) {
-        final List<FilteredStacktraceElement> filteredStacktraceElements = new ArrayList<>();
+    private static void appendCausesOmitted(int count, String qualifier, int indent, JsonStringSink stacktraceSink) {
+        appendLineStart(indent, stacktraceSink).append("\t[").append(count).append(qualifier)
+                .append(count == 1 ? " cause omitted]" : " causes omitted]");
+    }
+
+    private static void appendCircularReference(Throwable throwable, int indent, JsonStringSink stacktraceSink) {
+        appendLineStart(indent, stacktraceSink).append("\t[circular reference: ").append(throwable.getClass().getName())
+                .append(": ").append(throwable.getMessage()).append(']');
+    }
+
+    /**
+     * Counts the trailing stacktrace elements the cause shares with its enclosing throwable, the same way
+     * {@link Throwable#printStackTrace()} does.
+     */
+    private static int countFramesInCommon(StackTraceElement[] stackTrace, StackTraceElement[] enclosingStackTrace) {
+        int m = stackTrace.length - 1;
+        int n = enclosingStackTrace.length - 1;
+
+        while (m >= 0 && n >= 0 && stackTrace[m].equals(enclosingStackTrace[n])) {
+            m--;
+            n--;
+        }
+
+        return stackTrace.length - 1 - m;
+    }
+
+    /**
+     * Renders the first {@code count} stacktrace elements. Repeated sequences are rendered once if enabled. Stops once
+     * the frame budget or the length limit is spent.
+     */
+    private int renderStackTraceElements(StackTraceElement[] stackTraceElements, int count, int indent, RenderState renderState) {
+        JsonStringSink stacktraceSink = renderState.sink;
+        int filteredLines = 0;
+        int currentFilteredLines = 0;
+        int i = 0;
+
+        while (i < count) {
+            int cycleStart = i;
+            int cycleLength = fieldConfig.isCollapseRecursion() ? findCycleLength(stackTraceElements, i, count) : 0;
+            int chunkEnd = i + Math.max(cycleLength, 1);
+
+            for (; i < chunkEnd; i++) {
+                StackTraceElement stackTraceElement = stackTraceElements[i];
+
+                if (renderState.isLimitReached()) {
+                    appendSuppressedLines(currentFilteredLines, indent, stacktraceSink);
+                    appendLineStart(indent, stacktraceSink).append("\t[").append(count - i).append(" lines omitted]");
+
+                    return filteredLines;
+                }
+
+                renderState.framesSeen++;
+
+                if (renderState.stackTraceFilter.isFiltered(stackTraceElement)) {
+                    currentFilteredLines++;
+                    filteredLines++;
+                } else if (renderState.remainingFrames <= 0) {
+                    appendSuppressedLines(currentFilteredLines, indent, stacktraceSink);
+                    appendLineStart(indent, stacktraceSink).append("\t[").append(count - i).append(" lines omitted]");
+
+                    return filteredLines;
+                } else {
+                    appendSuppressedLines(currentFilteredLines, indent, stacktraceSink);
+                    currentFilteredLines = 0;
+
+                    appendLineStart(indent, stacktraceSink).append("\tat ");
+                    appendStackTraceElement(stackTraceElement, stacktraceSink);
+                    renderState.remainingFrames--;
+                }
+            }
+
+            if (cycleLength > 0) {
+                int repetitions = countRepetitions(stackTraceElements, cycleStart, cycleLength, count);
+
+                appendSuppressedLines(currentFilteredLines, indent, stacktraceSink);
+                currentFilteredLines = 0;
+
+                appendLineStart(indent, stacktraceSink).append("\t[").append(cycleLength).append(" lines repeated ")
+                        .append(repetitions).append(" times]");
+
+                i = cycleStart + cycleLength * repetitions;
+            }
+        }
 
-        for (StackTraceElement stacktraceElement : stacktraceElements) {
-            boolean stacktraceElementFiltered = classIsInFilteredPackage(stacktraceElement.getClassName());
+        // in case the filtered stacktrace elements are at the end
+        appendSuppressedLines(currentFilteredLines, indent, stacktraceSink);
 
-            filteredStacktraceElements.add(new FilteredStacktraceElement(stacktraceElement, stacktraceElementFiltered));
+        return filteredLines;
+    }
+
+    /**
+     * @return the length of the shortest sequence starting at {@code start} which is repeated at least
+     * {@link #MIN_REPETITIONS} times back to back or 0 if there is none
+     */
+    private static int findCycleLength(StackTraceElement[] stackTraceElements, int start, int end) {
+        for (int cycleLength = 1; cycleLength <= MAX_CYCLE_LENGTH && start + cycleLength * MIN_REPETITIONS <= end; cycleLength++) {
+            // cheap check first, most positions are not part of a cycle
+            if (stackTraceElements[start].equals(stackTraceElements[start + cycleLength])
+                    && countRepetitions(stackTraceElements, start, cycleLength, end) >= MIN_REPETITIONS) {
+                return cycleLength;
+            }
         }
 
-        return filteredStacktraceElements;
+        return 0;
+    }
+
+    /**
+     * @return how often the sequence starting at {@code start} is repeated back to back, including the sequence itself
+     */
+    private static int countRepetitions(StackTraceElement[] stackTraceElements, int start, int cycleLength, int end) {
+        int repetitions = 1;
+
+        for (int next = start + cycleLength; next + cycleLength <= end; next += cycleLength) {
+            for (int k = 0; k < cycleLength; k++) {
+                if (!stackTraceElements[start + k].equals(stackTraceElements[next + k])) {
+                    return repetitions;
+                }
+            }
+
+            repetitions++;
+        }
+
+        return repetitions;
+    }
+
+    private static void appendSuppressedLines(int suppressedLines, int indent, JsonStringSink stacktraceSink) {
+        if (suppressedLines > 0) {
+            appendLineStart(indent, stacktraceSink).append("\t[suppressed ").append(suppressedLines).append(" lines]");
+        }
+    }
+
+    /**
+     * Starts a new line indented by {@code indent} tabs.
+     */
+    private static JsonStringSink appendLineStart(int indent, JsonStringSink stacktraceSink) {
+        stacktraceSink.append(LINE_SEPARATOR);
+
+        for (int i = 0; i < indent; i++) {
+            stacktraceSink.append('\t');
+        }
+
+        return stacktraceSink;
+    }
+
+    /**
+     * Appends the text of the stacktrace element. Hot frames are copied from the cache in their escaped form, so they are
+     * neither formatted nor escaped again. With the frame dictionary enabled, known frames are written as {@code #id} and
+     * new ones as {@code #id text}.
+     */
+    private void appendStackTraceElement(StackTraceElement stackTraceElement, JsonStringSink stacktraceSink) {
+        if (frameDictionary != null) {
+            Integer frameId = frameDictionary.get(stackTraceElement);
+
+            if (frameId != null) {
+                stacktraceSink.append('#').append(frameId.longValue());
+
+                return;
+            }
+
+            int newFrameId = lastFrameId.incrementAndGet();
+
+            stacktraceSink.append('#').append(newFrameId).append(' ');
+            appendStackTraceElementText(stackTraceElement, stacktraceSink);
+
+            // a truncated text doesn't define the id, so the element is written with its text again next time
+            if (!stacktraceSink.isTruncated()) {
+                addToFrameDictionary(stackTraceElement, newFrameId);
+            }
+
+            return;
+        }
+
+        appendStackTraceElementText(stackTraceElement, stacktraceSink);
+    }
+
+    private void appendStackTraceElementText(StackTraceElement stackTraceElement, JsonStringSink stacktraceSink) {
+        if (frameTextCache == null) {
+            formatStackTraceElement(stackTraceElement, stacktraceSink);
+
+            return;
+        }
+
+        JsonStringSink.EscapedText cachedText = frameTextCache.get(stackTraceElement);
+
+        if (cachedText != null && stacktraceSink.tryAppend(cachedText)) {
+            return;
+        }
+
+        int bufferLength = stacktraceSink.bufferLength();
+        int length = stacktraceSink.length();
+
+        formatStackTraceElement(stackTraceElement, stacktraceSink);
+
+        if (cachedText == null && !stacktraceSink.isTruncated()) {
+            frameTextCache.putIfAbsent(stackTraceElement, stacktraceSink.escapedSince(bufferLength, length));
+        }
+    }
+
+    /**
+     * Adds the stacktrace element once its text has been written with the reserved id. Ids are never reused, so an evicted
+     * stacktrace element gets a new id and is written with its text again. If another thread added the element meanwhile,
+     * its id is kept, the reserved id has been defined by this event only.
+     */
+    private void addToFrameDictionary(StackTraceElement stackTraceElement, int frameId) {
+        frameDictionary.putIfAbsent(stackTraceElement, frameId);
+    }
+
+    private String abbreviate(String className) {
+        return classNameAbbreviator != null ? classNameAbbreviator.abbreviate(className) : className;
+    }
+
+    private void formatStackTraceElement(StackTraceElement stackTraceElement, JsonStringSink stacktraceSink) {
+        if (!fieldConfig.isGarbageFree() && classNameAbbreviator == null) {
+            stacktraceSink.append(stackTraceElement.toString());
+
+            return;
+        }
+
+        // same format as StackTraceElement.toString() of Java 8, the module and class loader names are not available
+        stacktraceSink.append(abbreviate(stackTraceElement.getClassName())).append('.').append(stackTraceElement.getMethodName());
+
+        if (stackTraceElement.isNativeMethod()) {
+            stacktraceSink.append("(Native Method)");
+        } else if (stackTraceElement.getFileName() == null) {
+            stacktraceSink.append("(Unknown Source)");
+        } else {
+            stacktraceSink.append('(').append(stackTraceElement.getFileName());
+
+            if (stackTraceElement.getLineNumber() >= 0) {
+                stacktraceSink.append(':').append(stackTraceElement.getLineNumber());
+            }
+
+            stacktraceSink.append(')');
+        }
+    }
+
+    /**
+     * Everything needed while rendering a single exception. Instances are recycled, so rendering does not allocate.
+     */
+    private static final class RenderState {
+        private final JsonStringSink sink = new JsonStringSink();
+        /**
+         * The throwables rendered so far, only tracked if suppressed exceptions are rendered.
+         */
+        private final Set<Throwable> renderedThrowables = Collections.newSetFromMap(new IdentityHashMap<>());
+        private int remainingFrames;
+        private int filteredLines;
+        private long fingerprint;
+        private int lengthLimit;
+        /**
+         * The filter of the resolver, the filter of an exception policy may replace it for rendering.
+         */
+        private StackTraceFilter configuredStackTraceFilter;
+        private StackTraceFilter stackTraceFilter;
+        private int maxRenderedFrames;
+        private boolean omitStack;
+        private int framesSeen;
+        private int causesWalked;
+        private boolean truncated;
+
+        private void open(JsonWriter jsonWriter, int capacity, int maxRenderedFrames, boolean headAndTailTruncation) {
+            sink.open(jsonWriter, capacity);
+            reset(maxRenderedFrames);
+            // the first half for the head, the rest for the root cause
+            lengthLimit = headAndTailTruncation ? sink.limit() / 2 : Integer.MAX_VALUE;
+        }
+
+        /**
+         * Prepares the state for rendering without the sink, which is opened per string then.
+         */
+        private void reset(int maxRenderedFrames) {
+            remainingFrames = maxRenderedFrames > 0 ? maxRenderedFrames : Integer.MAX_VALUE;
+            filteredLines = 0;
+        }
+
+        /**
+         * Clears the statistics of the metrics, which are not reset by rendering as a cached stacktrace is not rendered.
+         */
+        private void clearStatistics() {
+            framesSeen = 0;
+            causesWalked = 0;
+            truncated = false;
+            filteredLines = 0;
+            fingerprint = Fingerprint.INITIAL_VALUE;
+        }
+
+        private void liftLengthLimit() {
+            lengthLimit = Integer.MAX_VALUE;
+        }
+
+        /**
+         * @return {@code true} if nothing more should be rendered, everything appended to a truncated sink is dropped anyway
+         */
+        private boolean isLimitReached() {
+            return sink.length() >= lengthLimit || sink.isTruncated();
+        }
+
+        private void close() {
+            truncated = sink.isTruncated();
+            sink.close();
+
+            if (!renderedThrowables.isEmpty()) {
+                renderedThrowables.clear();
+            }
+        }
     }
 
-    private static final class Cause {
-        private final Throwable throwable;
-        private final List<FilteredStacktraceElement> filteredStacktraceElements;
+    static final class RenderedStackTrace {
+        private final String escapedStackTrace;
+        private final int filteredElements;
+        private final long fingerprint;
 
-        private Cause(Throwable throwable, List<FilteredStacktraceElement> filteredStacktraceElements) {
-            this.throwable = throwable;
-            this.filteredStacktraceElements = filteredStacktraceElements;
+        private RenderedStackTrace(String escapedStackTrace, int filteredElements, long fingerprint) {
+            this.escapedStackTrace = escapedStackTrace;
+            this.filteredElements = filteredElements;
+            this.fingerprint = fingerprint;
         }
     }
 
-    private static final class FilteredStacktraceElement {
-        private final StackTraceElement stackTraceElement;
-        private final boolean filtered;
+    /**
+     * The rendered stacktraces depend on the package lists, so the cache is replaced together with the filter.
+     */
+    private static final class RenderCache {
+        private final StackTraceFilter stackTraceFilter;
+        private final BoundedCache<StackTraceKey, RenderedStackTrace> entries;
 
-        private FilteredStacktraceElement(StackTraceElement stackTraceElement, boolean filtered) {
-            this.stackTraceElement = stackTraceElement;
-            this.filtered = filtered;
+        private RenderCache(StackTraceFilter stackTraceFilter, int size) {
+            this.stackTraceFilter = stackTraceFilter;
+            this.entries = new BoundedCache<>(size);
         }
     }
 }
@@ -0,0 +1,82 @@
+package org.glpste.logging.log4j2;
+
+/**
+ * 64-bit FNV-1a hash used to fingerprint stacktraces.
+ * <p>
+ * The hash is computed by a separate walk over the cause chain before or after rendering, so it covers all kept stacktrace
+ * elements, no matter how they are presented. It is written as 16 hex digits, so neither the hash nor its output allocate.
+ * </p>
+ */
+final class Fingerprint {
+    static final long INITIAL_VALUE = 0xcbf29ce484222325L;
+
+    private static final long PRIME = 0x100000001b3L;
+    private static final char[] HEX_CHARS = "0123456789abcdef".toCharArray();
+
+    private Fingerprint() {
+        // utility class
+    }
+
+    /**
+     * @param hash           the hash so far
+     * @param throwableClass the class of a throwable of the cause chain
+     * @return the new hash
+     */
+    static long hash(long hash, Class<?> throwableClass) {
+        return hash(hash(hash, throwableClass.getName()), '\n');
+    }
+
+    /**
+     * Adds the class and method of the stacktrace element, but not the line number, so the fingerprint survives small code
+     * changes.
+     *
+     * @param hash              the hash so far
+     * @param stackTraceElement the stacktrace element to add
+     * @return the new hash
+     */
+    static long hash(long hash, StackTraceElement stackTraceElement) {
+        hash = hash(hash, stackTraceElement.getClassName());
+        hash = hash(hash, '#');
+        hash = hash(hash, stackTraceElement.getMethodName());
+
+        return hash(hash, '\n');
+    }
+
+    /**
+     * @param hash the hash so far
+     * @param text the text to add, {@code null} is ignored
+     * @return the new hash
+     */
+    static long hash(long hash, String text) {
+        if (text == null) {
+            return hash;
+        }
+
+        for (int i = 0; i < text.length(); i++) {
+            hash = hash(hash, text.charAt(i));
+        }
+
+        return hash;
+    }
+
+    /**
+     * @param hash the hash so far
+     * @param c    the char to add
+     * @return the new hash
+     */
+    static long hash(long hash, char c) {
+        return (hash ^ c) * PRIME;
+    }
+
+    /**
+     * Appends the hash as 16 hex digits, including leading zeros.
+     *
+     * @param hash          the hash to append
+     * @param stringBuilder the buffer to append to
+     */
+    static void appendHex(long hash, StringBuilder stringBuilder) {
+        for (int shift = 60; shift >= 0; shift -= 4) {
+            stringBuilder.append(HEX_CHARS[(int) (hash >>> shift) & 0xF]);
+        }
+    }
+}
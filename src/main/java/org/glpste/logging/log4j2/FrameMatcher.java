@@ -0,0 +1,114 @@
+package org.glpste.logging.log4j2;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Matches stacktrace elements against rules beyond the class name:
+ * <ul>
+ *     <li>{@code org.apache.catalina.core.ApplicationFilterChain#doFilter} matches a method of a class</li>
+ *     <li>{@code #invoke0} matches a method of any class</li>
+ *     <li>{@code file:Proxy.java} matches the file name</li>
+ *     <li>{@code frame:native} matches native methods</li>
+ *     <li>{@code frame:synthetic} matches lambda bodies ({@code lambda$...}), synthetic accessors
+ *     ({@code access$...}) and lambda classes ({@code ...$$Lambda...})</li>
+ * </ul>
+ * <p>
+ * The rules are put into hash sets once, so a lookup costs a few hash lookups, no matter how many rules are configured.
+ * </p>
+ */
+final class FrameMatcher {
+    private static final String METHOD_SEPARATOR = "#";
+    private static final String FILE_PREFIX = "file:";
+    private static final String FRAME_PREFIX = "frame:";
+
+    private final Map<String, Set<String>> methodsByClassName = new HashMap<>();
+    private final Set<String> methodNames = new HashSet<>();
+    private final Set<String> fileNames = new HashSet<>();
+    private boolean nativeFrames;
+    private boolean syntheticFrames;
+
+    /**
+     * @param rules the frame rules, see {@link #isFrameRule(String)}
+     * @throws IllegalArgumentException if a {@code frame:} rule is unknown
+     */
+    FrameMatcher(Collection<String> rules) {
+        for (String rule : rules) {
+            if (rule.startsWith(FILE_PREFIX)) {
+                fileNames.add(rule.substring(FILE_PREFIX.length()));
+            } else if (rule.startsWith(FRAME_PREFIX)) {
+                addFrameRule(rule.substring(FRAME_PREFIX.length()));
+            } else if (rule.startsWith(METHOD_SEPARATOR)) {
+                methodNames.add(rule.substring(METHOD_SEPARATOR.length()));
+            } else {
+                int separatorIndex = rule.indexOf(METHOD_SEPARATOR);
+
+                methodsByClassName.computeIfAbsent(rule.substring(0, separatorIndex), className -> new HashSet<>())
+                        .add(rule.substring(separatorIndex + 1));
+            }
+        }
+    }
+
+    /**
+     * @param rule an entry of a package list
+     * @return {@code true} if the entry is a rule for this matcher and not for the {@link ClassNameMatcher}
+     */
+    static boolean isFrameRule(String rule) {
+        return rule != null && !rule.startsWith(ClassNameMatcher.REGEX_PREFIX)
+                && (rule.contains(METHOD_SEPARATOR) || rule.startsWith(FILE_PREFIX) || rule.startsWith(FRAME_PREFIX));
+    }
+
+    /**
+     * @param stackTraceElement the stacktrace element to check
+     * @return {@code true} if the stacktrace element matches at least one rule
+     */
+    boolean matches(StackTraceElement stackTraceElement) {
+        if (nativeFrames && stackTraceElement.isNativeMethod()) {
+            return true;
+        }
+
+        String methodName = stackTraceElement.getMethodName();
+
+        if (syntheticFrames && isSynthetic(stackTraceElement.getClassName(), methodName)) {
+            return true;
+        }
+
+        if (methodNames.contains(methodName)) {
+            return true;
+        }
+
+        if (!methodsByClassName.isEmpty()) {
+            Set<String> methodsOfClass = methodsByClassName.get(stackTraceElement.getClassName());
+
+            if (methodsOfClass != null && methodsOfClass.contains(methodName)) {
+                return true;
+            }
+        }
+
+        return !fileNames.isEmpty() && stackTraceElement.getFileName() != null && fileNames.contains(stackTraceElement.getFileName());
+    }
+
+    /**
+     * @return {@code true} if there are no rules
+     */
+    boolean isEmpty() {
+        return methodsByClassName.isEmpty() && methodNames.isEmpty() && fileNames.isEmpty() && !nativeFrames && !syntheticFrames;
+    }
+
+    private void addFrameRule(String frameType) {
+        if ("native".equals(frameType)) {
+            nativeFrames = true;
+        } else if ("synthetic".equals(frameType)) {
+            syntheticFrames = true;
+        } else {
+            throw new IllegalArgumentException("unknown frame rule: " + FRAME_PREFIX + frameType);
+        }
+    }
+
+    private static boolean isSynthetic(String className, String methodName) {
+        return methodName.startsWith("lambda$") || methodName.startsWith("access$") || className.contains("$$Lambda");
+    }
+}
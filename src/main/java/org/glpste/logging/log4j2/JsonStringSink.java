@@ -0,0 +1,243 @@
+package org.glpste.logging.log4j2;
+
+import org.apache.logging.log4j.layout.template.json.util.JsonWriter;
+
+/**
+ * Writes a JSON string value directly into the buffer of a {@link JsonWriter}, escaping the text while it is appended.
+ * <p>
+ * This avoids rendering the stacktrace into an intermediate buffer, copying it into a {@link String} and escaping it
+ * afterwards. Truncation behaves like the former combination of a
+ * {@link org.apache.logging.log4j.layout.template.json.util.TruncatingBufferedPrintWriter} with {@code capacity} chars and
+ * {@link JsonWriter#writeString(CharSequence)}: text beyond the capacity is dropped silently, text beyond the max. string
+ * length of the {@link JsonWriter} is replaced by its truncated string suffix.
+ * </p>
+ * <p>
+ * Instances are not thread-safe and are meant to be recycled. Call {@link #open(JsonWriter, int)} before appending and
+ * {@link #close()} afterwards.
+ * </p>
+ */
+final class JsonStringSink {
+    private static final char[] HEX_CHARS = "0123456789ABCDEF".toCharArray();
+
+    /**
+     * Same escaping rules as {@link JsonWriter}: 0 means no escaping, a positive value is the char to use after the
+     * backslash and -1 means a unicode escape sequence.
+     */
+    private static final int[] ESC_CODES;
+
+    static {
+        final int[] table = new int[128];
+        for (int i = 0; i < 32; ++i) {
+            table[i] = -1;
+        }
+        table['"'] = '"';
+        table['\\'] = '\\';
+        table[0x08] = 'b';
+        table[0x09] = 't';
+        table[0x0C] = 'f';
+        table[0x0A] = 'n';
+        table[0x0D] = 'r';
+        ESC_CODES = table;
+    }
+
+    private StringBuilder stringBuilder;
+    private int capacity;
+    private int maxStringLength;
+    private String truncatedStringSuffix;
+    private int limit;
+    private int length;
+    private boolean truncated;
+    private boolean suffixNeeded;
+    private char lastChar;
+
+    /**
+     * Starts a new JSON string in the buffer of the writer.
+     *
+     * @param jsonWriter the writer to write to
+     * @param capacity   the max. number of chars of the text, further chars are dropped
+     */
+    void open(JsonWriter jsonWriter, int capacity) {
+        this.stringBuilder = jsonWriter.getStringBuilder();
+        this.capacity = capacity;
+        this.maxStringLength = jsonWriter.getMaxStringLength();
+        this.truncatedStringSuffix = jsonWriter.getTruncatedStringSuffix();
+        this.limit = Math.min(capacity, maxStringLength);
+        this.length = 0;
+        this.truncated = false;
+        this.suffixNeeded = false;
+        this.lastChar = 0;
+
+        stringBuilder.append('"');
+    }
+
+    /**
+     * Appends the text escaped. {@code null} is written as {@code "null"}.
+     *
+     * @param text the text to append
+     * @return this sink
+     */
+    JsonStringSink append(CharSequence text) {
+        if (text == null) {
+            return append("null");
+        }
+
+        final int textLength = text.length();
+
+        for (int i = 0; i < textLength && !truncated; i++) {
+            append(text.charAt(i));
+        }
+
+        return this;
+    }
+
+    /**
+     * Appends a single char escaped.
+     *
+     * @param c the char to append
+     * @return this sink
+     */
+    JsonStringSink append(char c) {
+        if (length >= limit) {
+            if (!truncated) {
+                truncated = true;
+                // the text is longer than the JsonWriter accepts but still fits into the capacity
+                suffixNeeded = maxStringLength < capacity;
+            }
+
+            return this;
+        }
+
+        appendEscaped(c);
+        length++;
+        lastChar = c;
+
+        return this;
+    }
+
+    /**
+     * Appends text escaped before by this sink, see {@link #escapedSince(int, int)}. Nothing is appended if the text does
+     * not fit completely.
+     *
+     * @param text the escaped text
+     * @return {@code true} if the text has been appended
+     */
+    boolean tryAppend(EscapedText text) {
+        if (length + text.length > limit) {
+            return false;
+        }
+
+        stringBuilder.append(text.escapedText);
+        length += text.length;
+        lastChar = text.lastChar;
+
+        return true;
+    }
+
+    /**
+     * Appends the decimal representation of the number.
+     *
+     * @param number the number to append
+     * @return this sink
+     */
+    JsonStringSink append(long number) {
+        if (number < 0) {
+            append('-');
+
+            if (number == Long.MIN_VALUE) {
+                return append("9223372036854775808");
+            }
+
+            number = -number;
+        }
+
+        if (number >= 10) {
+            append(number / 10);
+        }
+
+        return append((char) ('0' + number % 10));
+    }
+
+    /**
+     * @return {@code true} if further text is dropped
+     */
+    boolean isTruncated() {
+        return truncated;
+    }
+
+    /**
+     * @return the current length of the buffer of the writer (after escaping)
+     */
+    int bufferLength() {
+        return stringBuilder.length();
+    }
+
+    /**
+     * Copies the text appended since the given position, e.g. to append it again with {@link #tryAppend(EscapedText)}.
+     *
+     * @param bufferLength the length of the buffer before appending the text, see {@link #bufferLength()}
+     * @param length       the length before appending the text, see {@link #length()}
+     * @return the escaped text
+     */
+    EscapedText escapedSince(int bufferLength, int length) {
+        return new EscapedText(stringBuilder.substring(bufferLength), this.length - length, lastChar);
+    }
+
+    /**
+     * @return the max. number of chars accepted (before escaping), further chars are dropped
+     */
+    int limit() {
+        return limit;
+    }
+
+    /**
+     * @return the number of chars appended so far (before escaping)
+     */
+    int length() {
+        return length;
+    }
+
+    /**
+     * Finishes the JSON string and releases the buffer of the writer.
+     */
+    void close() {
+        if (suffixNeeded) {
+            // don't leave half of a surrogate pair behind, like JsonWriter does
+            if (Character.isHighSurrogate(lastChar)) {
+                stringBuilder.setLength(stringBuilder.length() - 1);
+            }
+
+            for (int i = 0; i < truncatedStringSuffix.length(); i++) {
+                appendEscaped(truncatedStringSuffix.charAt(i));
+            }
+        }
+
+        stringBuilder.append('"');
+        stringBuilder = null;
+        truncatedStringSuffix = null;
+    }
+
+    private void appendEscaped(char c) {
+        if (c >= ESC_CODES.length || ESC_CODES[c] == 0) {
+            stringBuilder.append(c);
+        } else if (ESC_CODES[c] > 0) {
+            stringBuilder.append('\\').append((char) ESC_CODES[c]);
+        } else {
+            stringBuilder.append("\\u00").append(HEX_CHARS[c >> 4]).append(HEX_CHARS[c & 0xF]);
+        }
+    }
+
+    /**
+     * Text in its JSON escaped form together with the length of the original text.
+     */
+    static final class EscapedText {
+        private final String escapedText;
+        private final int length;
+        private final char lastChar;
+
+        private EscapedText(String escapedText, int length, char lastChar) {
+            this.escapedText = escapedText;
+            this.length = length;
+            this.lastChar = lastChar;
+        }
+    }
+}
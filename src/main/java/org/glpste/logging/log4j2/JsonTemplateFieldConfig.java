@@ -1,7 +1,9 @@
 package org.glpste.logging.log4j2;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import lombok.Getter;
 import lombok.Setter;
@@ -35,6 +37,90 @@ public class JsonTemplateFieldConfig {
     @Getter
     private List<String> filteredPackages = new ArrayList<>();
 
+    @Setter
+    @Getter
+    private int classVerdictCacheSize = Integer.parseInt(ConfigProperty.VERDICT_CACHE_SIZE.getDefaultValue());
+
+    @Setter
+    @Getter
+    private int renderedStackTraceCacheSize = Integer.parseInt(ConfigProperty.RENDER_CACHE_SIZE.getDefaultValue());
+
+    @Setter
+    @Getter
+    private boolean garbageFree = Boolean.parseBoolean(ConfigProperty.GARBAGE_FREE.getDefaultValue());
+
+    @Setter
+    @Getter
+    private boolean elideCommonFrames = Boolean.parseBoolean(ConfigProperty.ELIDE_COMMON_FRAMES.getDefaultValue());
+
+    @Setter
+    @Getter
+    private boolean collapseRecursion = Boolean.parseBoolean(ConfigProperty.COLLAPSE_RECURSION.getDefaultValue());
+
+    @Setter
+    @Getter
+    private int maxCauseDepth = Integer.parseInt(ConfigProperty.MAX_CAUSE_DEPTH.getDefaultValue());
+
+    @Setter
+    @Getter
+    private boolean suppressedExceptions = Boolean.parseBoolean(ConfigProperty.SUPPRESSED.getDefaultValue());
+
+    @Setter
+    @Getter
+    private int maxRenderedFrames = Integer.parseInt(ConfigProperty.MAX_RENDERED_FRAMES.getDefaultValue());
+
+    @Setter
+    @Getter
+    private boolean headAndTailTruncation = Boolean.parseBoolean(ConfigProperty.HEAD_AND_TAIL.getDefaultValue());
+
+    @Setter
+    @Getter
+    private int frameTextCacheSize = Integer.parseInt(ConfigProperty.FRAME_CACHE_SIZE.getDefaultValue());
+
+    @Setter
+    @Getter
+    private boolean fingerprint = Boolean.parseBoolean(ConfigProperty.FINGERPRINT.getDefaultValue());
+
+    @Setter
+    @Getter
+    private String fingerprintField = ConfigProperty.FINGERPRINT_FIELD.getDefaultValue();
+
+    @Setter
+    @Getter
+    private int repeatSuppressionWindowMillis = Integer.parseInt(ConfigProperty.REPEAT_WINDOW.getDefaultValue());
+
+    @Setter
+    @Getter
+    private int repeatTrackerSize = Integer.parseInt(ConfigProperty.REPEAT_TRACKER_SIZE.getDefaultValue());
+
+    @Setter
+    @Getter
+    private String occurrenceField = ConfigProperty.OCCURRENCE_FIELD.getDefaultValue();
+
+    @Setter
+    @Getter
+    private String stackFormat = ConfigProperty.STACK_FORMAT.getDefaultValue();
+
+    @Setter
+    @Getter
+    private int frameDictionarySize = Integer.parseInt(ConfigProperty.FRAME_DICTIONARY_SIZE.getDefaultValue());
+
+    @Setter
+    @Getter
+    private int classNameTargetLength = Integer.parseInt(ConfigProperty.CLASS_NAME_TARGET_LENGTH.getDefaultValue());
+
+    @Setter
+    @Getter
+    private String metricsName = ConfigProperty.METRICS_NAME.getDefaultValue();
+
+    @Setter
+    @Getter
+    private String filterName = ConfigProperty.FILTER_NAME.getDefaultValue();
+
+    @Setter
+    @Getter
+    private Map<String, ExceptionPolicy> exceptionPolicies = new HashMap<>();
+
     /**
      * Default constructor for deserialization purposes.
      * Use {@link #builder()} to create a new instance instead.
@@ -83,6 +169,27 @@ public class JsonTemplateFieldConfig {
         private String countField;
         private List<String> allowedPackages;
         private List<String> filteredPackages;
+        private Integer classVerdictCacheSize;
+        private Integer renderedStackTraceCacheSize;
+        private Boolean garbageFree;
+        private Boolean elideCommonFrames;
+        private Boolean collapseRecursion;
+        private Integer maxCauseDepth;
+        private Boolean suppressedExceptions;
+        private Integer maxRenderedFrames;
+        private Boolean headAndTailTruncation;
+        private Integer frameTextCacheSize;
+        private Boolean fingerprint;
+        private String fingerprintField;
+        private Integer repeatSuppressionWindowMillis;
+        private Integer repeatTrackerSize;
+        private String occurrenceField;
+        private String stackFormat;
+        private Integer frameDictionarySize;
+        private Integer classNameTargetLength;
+        private String metricsName;
+        private String filterName;
+        private Map<String, ExceptionPolicy> exceptionPolicies;
 
         /**
          * Sets the field name for the exception name in the JSON output.
@@ -150,13 +257,244 @@ public class JsonTemplateFieldConfig {
             return this;
         }
 
+        /**
+         * Sets the maximum number of class names whose filter verdict is cached.
+         *
+         * @param classVerdictCacheSize the maximum cache size, 0 disables the cache
+         * @return this builder instance
+         */
+        public Builder classVerdictCacheSize(Integer classVerdictCacheSize) {
+            this.classVerdictCacheSize = classVerdictCacheSize;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of rendered stacktraces which are cached.
+         *
+         * @param renderedStackTraceCacheSize the maximum cache size, 0 disables the cache
+         * @return this builder instance
+         */
+        public Builder renderedStackTraceCacheSize(Integer renderedStackTraceCacheSize) {
+            this.renderedStackTraceCacheSize = renderedStackTraceCacheSize;
+            return this;
+        }
+
+        /**
+         * Enables the garbage-free rendering of stack trace elements.
+         *
+         * @param garbageFree {@code true} to render stack trace elements without creating garbage
+         * @return this builder instance
+         */
+        public Builder garbageFree(Boolean garbageFree) {
+            this.garbageFree = garbageFree;
+            return this;
+        }
+
+        /**
+         * Sets whether the trailing stack trace elements shared with the enclosing throwable are elided.
+         *
+         * @param elideCommonFrames {@code true} to elide the shared stack trace elements
+         * @return this builder instance
+         */
+        public Builder elideCommonFrames(Boolean elideCommonFrames) {
+            this.elideCommonFrames = elideCommonFrames;
+            return this;
+        }
+
+        /**
+         * Sets whether repeated sequences of stack trace elements are rendered only once.
+         *
+         * @param collapseRecursion {@code true} to collapse repeated sequences of stack trace elements
+         * @return this builder instance
+         */
+        public Builder collapseRecursion(Boolean collapseRecursion) {
+            this.collapseRecursion = collapseRecursion;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of causes rendered below the outermost throwable.
+         *
+         * @param maxCauseDepth the maximum number of rendered causes
+         * @return this builder instance
+         */
+        public Builder maxCauseDepth(Integer maxCauseDepth) {
+            this.maxCauseDepth = maxCauseDepth;
+            return this;
+        }
+
+        /**
+         * Sets whether the suppressed exceptions are rendered.
+         *
+         * @param suppressedExceptions {@code true} to render the suppressed exceptions
+         * @return this builder instance
+         */
+        public Builder suppressedExceptions(Boolean suppressedExceptions) {
+            this.suppressedExceptions = suppressedExceptions;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of stack trace elements rendered for the whole exception.
+         *
+         * @param maxRenderedFrames the maximum number of rendered stack trace elements, 0 for no limit
+         * @return this builder instance
+         */
+        public Builder maxRenderedFrames(Integer maxRenderedFrames) {
+            this.maxRenderedFrames = maxRenderedFrames;
+            return this;
+        }
+
+        /**
+         * Sets whether the top of the outermost throwable and the root cause are kept if the stack trace is too long.
+         *
+         * @param headAndTailTruncation {@code true} to keep the head and the root cause of long stack traces
+         * @return this builder instance
+         */
+        public Builder headAndTailTruncation(Boolean headAndTailTruncation) {
+            this.headAndTailTruncation = headAndTailTruncation;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of stack trace elements whose rendered text is cached.
+         *
+         * @param frameTextCacheSize the maximum number of cached stack trace elements, 0 to disable the cache
+         * @return this builder instance
+         */
+        public Builder frameTextCacheSize(Integer frameTextCacheSize) {
+            this.frameTextCacheSize = frameTextCacheSize;
+            return this;
+        }
+
+        /**
+         * Sets whether the fingerprint of the stack trace is added to the JSON output.
+         *
+         * @param fingerprint {@code true} to add the fingerprint
+         * @return this builder instance
+         */
+        public Builder fingerprint(Boolean fingerprint) {
+            this.fingerprint = fingerprint;
+            return this;
+        }
+
+        /**
+         * Sets the field name for the fingerprint of the stack trace in the JSON output.
+         *
+         * @param fingerprintField the field name for the fingerprint
+         * @return this builder instance
+         */
+        public Builder fingerprintField(String fingerprintField) {
+            this.fingerprintField = fingerprintField;
+            return this;
+        }
+
+        /**
+         * Sets the time window in milliseconds in which repeats of an exception are written without stack trace.
+         *
+         * @param repeatSuppressionWindowMillis the time window in milliseconds, 0 to disable the repeat suppression
+         * @return this builder instance
+         */
+        public Builder repeatSuppressionWindowMillis(Integer repeatSuppressionWindowMillis) {
+            this.repeatSuppressionWindowMillis = repeatSuppressionWindowMillis;
+            return this;
+        }
+
+        /**
+         * Sets the number of fingerprints tracked for the repeat suppression.
+         *
+         * @param repeatTrackerSize the number of tracked fingerprints
+         * @return this builder instance
+         */
+        public Builder repeatTrackerSize(Integer repeatTrackerSize) {
+            this.repeatTrackerSize = repeatTrackerSize;
+            return this;
+        }
+
+        /**
+         * Sets the field name for the occurrence counter of the repeat suppression in the JSON output.
+         *
+         * @param occurrenceField the field name for the occurrence counter
+         * @return this builder instance
+         */
+        public Builder occurrenceField(String occurrenceField) {
+            this.occurrenceField = occurrenceField;
+            return this;
+        }
+
+        /**
+         * Sets the format of the stack trace in the JSON output.
+         *
+         * @param stackFormat the format of the stack trace, see {@link StackFormat}
+         * @return this builder instance
+         */
+        public Builder stackFormat(String stackFormat) {
+            this.stackFormat = stackFormat;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of stack trace elements in the frame dictionary.
+         *
+         * @param frameDictionarySize the maximum number of stack trace elements in the dictionary, 0 to disable it
+         * @return this builder instance
+         */
+        public Builder frameDictionarySize(Integer frameDictionarySize) {
+            this.frameDictionarySize = frameDictionarySize;
+            return this;
+        }
+
+        /**
+         * Sets the length the class names of the stack trace elements are abbreviated to.
+         *
+         * @param classNameTargetLength the target length of the class names, 0 to disable the abbreviation
+         * @return this builder instance
+         */
+        public Builder classNameTargetLength(Integer classNameTargetLength) {
+            this.classNameTargetLength = classNameTargetLength;
+            return this;
+        }
+
+        /**
+         * Sets the name of the JMX MBean exposing the metrics of the resolver.
+         *
+         * @param metricsName the name of the MBean, empty to disable the metrics
+         * @return this builder instance
+         */
+        public Builder metricsName(String metricsName) {
+            this.metricsName = metricsName;
+            return this;
+        }
+
+        /**
+         * Sets the name to update the package lists of the resolver at runtime with.
+         *
+         * @param filterName the name of the package lists, empty to keep the configured lists
+         * @return this builder instance
+         */
+        public Builder filterName(String filterName) {
+            this.filterName = filterName;
+            return this;
+        }
+
+        /**
+         * Sets the policies per exception class name.
+         *
+         * @param exceptionPolicies the policies per fully qualified exception class name
+         * @return this builder instance
+         */
+        public Builder exceptionPolicies(Map<String, ExceptionPolicy> exceptionPolicies) {
+            this.exceptionPolicies = exceptionPolicies;
+            return this;
+        }
+
         /**
          * Builds a new instance of {@link JsonTemplateFieldConfig} with the configured values.
          *
          * @return a new instance of {@link JsonTemplateFieldConfig}
          */
         public JsonTemplateFieldConfig build() {
-            return new JsonTemplateFieldConfig(
+            JsonTemplateFieldConfig config = new JsonTemplateFieldConfig(
                     nameField,
                     messageField,
                     stackField,
@@ -164,6 +502,92 @@ public class JsonTemplateFieldConfig {
                     allowedPackages,
                     filteredPackages
             );
+
+            if (classVerdictCacheSize != null) {
+                config.setClassVerdictCacheSize(classVerdictCacheSize);
+            }
+
+            if (renderedStackTraceCacheSize != null) {
+                config.setRenderedStackTraceCacheSize(renderedStackTraceCacheSize);
+            }
+
+            if (garbageFree != null) {
+                config.setGarbageFree(garbageFree);
+            }
+
+            if (elideCommonFrames != null) {
+                config.setElideCommonFrames(elideCommonFrames);
+            }
+
+            if (collapseRecursion != null) {
+                config.setCollapseRecursion(collapseRecursion);
+            }
+
+            if (maxCauseDepth != null) {
+                config.setMaxCauseDepth(maxCauseDepth);
+            }
+
+            if (suppressedExceptions != null) {
+                config.setSuppressedExceptions(suppressedExceptions);
+            }
+
+            if (maxRenderedFrames != null) {
+                config.setMaxRenderedFrames(maxRenderedFrames);
+            }
+
+            if (headAndTailTruncation != null) {
+                config.setHeadAndTailTruncation(headAndTailTruncation);
+            }
+
+            if (frameTextCacheSize != null) {
+                config.setFrameTextCacheSize(frameTextCacheSize);
+            }
+
+            if (fingerprint != null) {
+                config.setFingerprint(fingerprint);
+            }
+
+            if (fingerprintField != null) {
+                config.setFingerprintField(fingerprintField);
+            }
+
+            if (repeatSuppressionWindowMillis != null) {
+                config.setRepeatSuppressionWindowMillis(repeatSuppressionWindowMillis);
+            }
+
+            if (repeatTrackerSize != null) {
+                config.setRepeatTrackerSize(repeatTrackerSize);
+            }
+
+            if (occurrenceField != null) {
+                config.setOccurrenceField(occurrenceField);
+            }
+
+            if (stackFormat != null) {
+                config.setStackFormat(stackFormat);
+            }
+
+            if (frameDictionarySize != null) {
+                config.setFrameDictionarySize(frameDictionarySize);
+            }
+
+            if (classNameTargetLength != null) {
+                config.setClassNameTargetLength(classNameTargetLength);
+            }
+
+            if (metricsName != null) {
+                config.setMetricsName(metricsName);
+            }
+
+            if (filterName != null) {
+                config.setFilterName(filterName);
+            }
+
+            if (exceptionPolicies != null) {
+                config.setExceptionPolicies(exceptionPolicies);
+            }
+
+            return config;
         }
     }
 }
@@ -0,0 +1,105 @@
+package org.glpste.logging.log4j2;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Immutable character trie answering "does the class name start with any of the configured prefixes?".
+ * <p>
+ * The trie is built once from the configured package list. A lookup walks the class name at most once, so its cost depends
+ * on the length of the class name only and not on the number of configured prefixes.
+ * </p>
+ */
+final class PackagePrefixTrie {
+    private final Node root = new Node();
+
+    PackagePrefixTrie(Collection<String> prefixes) {
+        for (String prefix : prefixes) {
+            if (prefix != null) {
+                add(prefix);
+            }
+        }
+    }
+
+    /**
+     * Checks the class name against all prefixes.
+     *
+     * @param className the fully qualified class name
+     * @return {@code true} if the class name starts with at least one prefix
+     */
+    boolean matchesPrefixOf(String className) {
+        Node node = root;
+
+        for (int i = 0; ; i++) {
+            if (node.terminal) {
+                return true;
+            }
+
+            if (i == className.length()) {
+                return false;
+            }
+
+            node = node.child(className.charAt(i));
+
+            if (node == null) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * @return {@code true} if no prefix has been configured
+     */
+    boolean isEmpty() {
+        return !root.terminal && root.keys.length == 0;
+    }
+
+    private void add(String prefix) {
+        Node node = root;
+
+        for (int i = 0; i < prefix.length() && !node.terminal; i++) {
+            node = node.childOrCreate(prefix.charAt(i));
+        }
+
+        // a shorter prefix already covers everything below this node
+        node.terminal = true;
+    }
+
+    private static final class Node {
+        private char[] keys = new char[0];
+        private Node[] children = new Node[0];
+        private boolean terminal;
+
+        private Node child(char key) {
+            int index = Arrays.binarySearch(keys, key);
+
+            return index >= 0 ? children[index] : null;
+        }
+
+        private Node childOrCreate(char key) {
+            int index = Arrays.binarySearch(keys, key);
+
+            if (index >= 0) {
+                return children[index];
+            }
+
+            int insertionPoint = -index - 1;
+            Node child = new Node();
+
+            char[] newKeys = new char[keys.length + 1];
+            System.arraycopy(keys, 0, newKeys, 0, insertionPoint);
+            newKeys[insertionPoint] = key;
+            System.arraycopy(keys, insertionPoint, newKeys, insertionPoint + 1, keys.length - insertionPoint);
+
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(children, 0, newChildren, 0, insertionPoint);
+            newChildren[insertionPoint] = child;
+            System.arraycopy(children, insertionPoint, newChildren, insertionPoint + 1, children.length - insertionPoint);
+
+            keys = newKeys;
+            children = newChildren;
+
+            return child;
+        }
+    }
+}
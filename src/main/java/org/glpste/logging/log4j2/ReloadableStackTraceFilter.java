@@ -0,0 +1,38 @@
+package org.glpste.logging.log4j2;
+
+import java.util.List;
+
+/**
+ * Holds the {@link StackTraceFilter} of a resolver, which can be replaced while logging.
+ * <p>
+ * A new filter is compiled completely by the updating thread and published with a single volatile write, so logging threads
+ * never wait and never see a half compiled filter. Read the filter once per event to render it consistently.
+ * </p>
+ */
+final class ReloadableStackTraceFilter {
+    private final int verdictCacheSize;
+    private volatile StackTraceFilter stackTraceFilter;
+
+    ReloadableStackTraceFilter(List<String> allowedPackages, List<String> filteredPackages, int verdictCacheSize) {
+        this.verdictCacheSize = verdictCacheSize;
+        this.stackTraceFilter = SharedStackTraceFilters.get(allowedPackages, filteredPackages, verdictCacheSize);
+    }
+
+    /**
+     * @return the current filter
+     */
+    StackTraceFilter get() {
+        return stackTraceFilter;
+    }
+
+    /**
+     * Replaces the current filter by the filter of the package lists, which is shared with other resolvers using the same
+     * lists, see {@link SharedStackTraceFilters}.
+     *
+     * @param allowedPackages  the packages to keep, all other packages are removed if not empty
+     * @param filteredPackages the packages to remove
+     */
+    void update(List<String> allowedPackages, List<String> filteredPackages) {
+        stackTraceFilter = SharedStackTraceFilters.get(allowedPackages, filteredPackages, verdictCacheSize);
+    }
+}
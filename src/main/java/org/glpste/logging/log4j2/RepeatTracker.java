@@ -0,0 +1,79 @@
+package org.glpste.logging.log4j2;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Counts the occurrences of fingerprints within a time window.
+ * <p>
+ * The state is split into stripes, each guarded by its own lock, so threads logging different exceptions rarely contend.
+ * Each fingerprint maps to a single slot of its stripe. If two fingerprints share a slot, the newer one replaces the older
+ * one, which then starts a new window on its next occurrence. The size is fixed and tracking does not allocate.
+ * </p>
+ */
+final class RepeatTracker {
+    /**
+     * Must be 16, the stripe is selected by the upper 4 bits of the hash.
+     */
+    private static final int STRIPE_COUNT = 16;
+
+    private final long windowMillis;
+    private final LongSupplier clock;
+    private final Stripe[] stripes = new Stripe[STRIPE_COUNT];
+
+    RepeatTracker(int size, long windowMillis) {
+        this(size, windowMillis, System::currentTimeMillis);
+    }
+
+    RepeatTracker(int size, long windowMillis, LongSupplier clock) {
+        if (size < 1) {
+            throw new IllegalArgumentException("size must be positive: " + size);
+        }
+
+        this.windowMillis = windowMillis;
+        this.clock = clock;
+
+        int slotsPerStripe = Math.max(1, (size + STRIPE_COUNT - 1) / STRIPE_COUNT);
+        for (int i = 0; i < STRIPE_COUNT; i++) {
+            stripes[i] = new Stripe(slotsPerStripe);
+        }
+    }
+
+    /**
+     * Records an occurrence of the fingerprint.
+     *
+     * @param fingerprint the fingerprint of the exception
+     * @return the number of occurrences within the current window, 1 if the window has just started
+     */
+    long recordOccurrence(long fingerprint) {
+        // Fibonacci hashing spreads similar fingerprints, the upper bits select the stripe, the lower ones the slot
+        long hash = fingerprint * 0x9E3779B97F4A7C15L;
+        Stripe stripe = stripes[(int) (hash >>> 60)];
+        int slot = (int) ((hash >>> 28) & 0xFFFFFFFL) % stripe.fingerprints.length;
+        long now = clock.getAsLong();
+
+        synchronized (stripe) {
+            if (stripe.occurrences[slot] > 0 && stripe.fingerprints[slot] == fingerprint
+                    && now - stripe.windowStarts[slot] < windowMillis) {
+                return ++stripe.occurrences[slot];
+            }
+
+            stripe.fingerprints[slot] = fingerprint;
+            stripe.windowStarts[slot] = now;
+            stripe.occurrences[slot] = 1;
+
+            return 1;
+        }
+    }
+
+    private static final class Stripe {
+        private final long[] fingerprints;
+        private final long[] windowStarts;
+        private final long[] occurrences;
+
+        private Stripe(int slots) {
+            this.fingerprints = new long[slots];
+            this.windowStarts = new long[slots];
+            this.occurrences = new long[slots];
+        }
+    }
+}
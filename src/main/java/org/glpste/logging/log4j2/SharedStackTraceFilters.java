@@ -0,0 +1,121 @@
+package org.glpste.logging.log4j2;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Shares the compiled {@link StackTraceFilter}s between all resolvers of the JVM.
+ * <p>
+ * Applications with many appenders or logger contexts usually configure the same package lists everywhere. Resolvers with
+ * equal lists and verdict cache sizes get the same filter, so the lists are compiled once and the verdict cache warmed up
+ * by one appender serves all others. The filters are referenced weakly and disappear together with the last resolver
+ * using them.
+ * </p>
+ */
+final class SharedStackTraceFilters {
+    private static final Map<FilterKey, FilterReference> FILTERS = new HashMap<>();
+    private static final ReferenceQueue<StackTraceFilter> RELEASED_FILTERS = new ReferenceQueue<>();
+
+    private SharedStackTraceFilters() {}
+
+    /**
+     * Returns the filter for the configuration, compiling it if no resolver uses an equal configuration yet. The filter is
+     * compiled outside the lock, so threads looking up other configurations don't wait for it. Threads compiling an equal
+     * configuration at the same time all get the filter registered first.
+     *
+     * @param allowedPackages  the packages to keep, all other packages are removed if not empty
+     * @param filteredPackages the packages to remove
+     * @param verdictCacheSize the size of the verdict cache
+     * @return the shared filter
+     */
+    static StackTraceFilter get(List<String> allowedPackages, List<String> filteredPackages, int verdictCacheSize) {
+        FilterKey key = new FilterKey(allowedPackages, filteredPackages, verdictCacheSize);
+        StackTraceFilter filter = lookup(key);
+
+        if (filter != null) {
+            return filter;
+        }
+
+        StackTraceFilter compiledFilter = new StackTraceFilter(key.allowedPackages, key.filteredPackages, verdictCacheSize);
+
+        synchronized (FILTERS) {
+            filter = lookup(key);
+
+            if (filter == null) {
+                filter = compiledFilter;
+                FILTERS.put(key, new FilterReference(key, filter));
+            }
+
+            return filter;
+        }
+    }
+
+    private static StackTraceFilter lookup(FilterKey key) {
+        synchronized (FILTERS) {
+            removeReleasedFilters();
+
+            FilterReference reference = FILTERS.get(key);
+
+            return reference != null ? reference.get() : null;
+        }
+    }
+
+    private static void removeReleasedFilters() {
+        FilterReference reference;
+
+        while ((reference = (FilterReference) RELEASED_FILTERS.poll()) != null) {
+            // a new filter may have been registered for the key meanwhile
+            FILTERS.remove(reference.key, reference);
+        }
+    }
+
+    private static final class FilterReference extends WeakReference<StackTraceFilter> {
+        private final FilterKey key;
+
+        private FilterReference(FilterKey key, StackTraceFilter filter) {
+            super(filter, RELEASED_FILTERS);
+            this.key = key;
+        }
+    }
+
+    /**
+     * The configuration of a filter. The lists are copied, so later changes of the configured lists don't affect it.
+     */
+    private static final class FilterKey {
+        private final List<String> allowedPackages;
+        private final List<String> filteredPackages;
+        private final int verdictCacheSize;
+
+        private FilterKey(List<String> allowedPackages, List<String> filteredPackages, int verdictCacheSize) {
+            this.allowedPackages = new ArrayList<>(allowedPackages);
+            this.filteredPackages = new ArrayList<>(filteredPackages);
+            this.verdictCacheSize = verdictCacheSize;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) {
+                return true;
+            }
+
+            if (!(other instanceof FilterKey)) {
+                return false;
+            }
+
+            FilterKey otherKey = (FilterKey) other;
+
+            return verdictCacheSize == otherKey.verdictCacheSize
+                    && allowedPackages.equals(otherKey.allowedPackages)
+                    && filteredPackages.equals(otherKey.filteredPackages);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * allowedPackages.hashCode() + filteredPackages.hashCode()) + verdictCacheSize;
+        }
+    }
+}
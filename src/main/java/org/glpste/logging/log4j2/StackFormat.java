@@ -0,0 +1,48 @@
+package org.glpste.logging.log4j2;
+
+import lombok.Getter;
+
+/**
+ * The formats of the stack trace in the JSON output, configured with {@link ConfigProperty#STACK_FORMAT}.
+ */
+@Getter
+public enum StackFormat {
+
+    /**
+     * A single string like {@link Throwable#printStackTrace()} writes it.
+     */
+    STRING("string"),
+
+    /**
+     * An array with an object per cause, containing the stack trace elements as strings.
+     */
+    ARRAY("array"),
+
+    /**
+     * An array with an object per cause, containing the stack trace elements as objects with the class, method, file and
+     * line.
+     */
+    OBJECTS("objects")
+    ;
+
+    private final String key;
+
+    StackFormat(String key) {
+        this.key = key;
+    }
+
+    /**
+     * @param key the configured format
+     * @return the format with the given key
+     * @throws IllegalArgumentException if the format is unknown
+     */
+    public static StackFormat of(String key) {
+        for (StackFormat stackFormat : values()) {
+            if (stackFormat.key.equals(key)) {
+                return stackFormat;
+            }
+        }
+
+        throw new IllegalArgumentException("unknown stack format: " + key);
+    }
+}
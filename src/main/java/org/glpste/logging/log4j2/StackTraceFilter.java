@@ -0,0 +1,106 @@
+package org.glpste.logging.log4j2;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Decides whether a stacktrace element is irrelevant and has to be removed from the output.
+ * <p>
+ * The configured package lists are compiled into {@link ClassNameMatcher}s once, so classifying a frame does not depend on
+ * the number of configured packages. Rules for methods, files and frame types are compiled into {@link FrameMatcher}s.
+ * Optionally, the verdict per class name is kept in a {@link BoundedCache}, so
+ * repeated classes are classified by a single lookup. Instances can be shared between threads.
+ * </p>
+ */
+final class StackTraceFilter {
+    private final ClassNameMatcher allowedPackages;
+    private final ClassNameMatcher filteredPackages;
+    private final FrameMatcher allowedFrames;
+    private final FrameMatcher filteredFrames;
+    private final BoundedCache<String, Boolean> verdictCache;
+
+    StackTraceFilter(List<String> allowedPackages, List<String> filteredPackages, int verdictCacheSize) {
+        List<String> allowedFrameRules = new ArrayList<>();
+        List<String> filteredFrameRules = new ArrayList<>();
+
+        this.allowedPackages = new ClassNameMatcher(splitFrameRules(allowedPackages, allowedFrameRules));
+        this.filteredPackages = new ClassNameMatcher(splitFrameRules(filteredPackages, filteredFrameRules));
+        this.allowedFrames = new FrameMatcher(allowedFrameRules);
+        // like the filtered packages, the frame rules of the filtered list are ignored if there are allowed packages
+        this.filteredFrames = new FrameMatcher(this.allowedPackages.isEmpty() ? filteredFrameRules : Collections.emptyList());
+        this.verdictCache = verdictCacheSize > 0 ? new BoundedCache<>(verdictCacheSize) : null;
+    }
+
+    /**
+     * Checks the stacktrace element against the frame rules and its class. A frame rule of the allowed list keeps an
+     * element of a removed class, a frame rule of the filtered list removes an element of a kept class unless there are
+     * allowed packages.
+     *
+     * @param stackTraceElement the stacktrace element
+     * @return {@code true} if the stacktrace element has to be removed
+     */
+    boolean isFiltered(StackTraceElement stackTraceElement) {
+        if (isFiltered(stackTraceElement.getClassName())) {
+            return allowedFrames.isEmpty() || !allowedFrames.matches(stackTraceElement);
+        }
+
+        return !filteredFrames.isEmpty() && filteredFrames.matches(stackTraceElement);
+    }
+
+    /**
+     * @param className the fully qualified name of the class of a stacktrace element
+     * @return {@code true} if the stacktrace element has to be removed
+     */
+    boolean isFiltered(String className) {
+        if (verdictCache == null) {
+            return classify(className);
+        }
+
+        Boolean cachedVerdict = verdictCache.get(className);
+
+        if (cachedVerdict == null) {
+            cachedVerdict = classify(className);
+            verdictCache.putIfAbsent(className, cachedVerdict);
+        }
+
+        return cachedVerdict;
+    }
+
+    /**
+     * @return the cache of verdicts per class name or {@code null} if caching is disabled
+     */
+    BoundedCache<String, Boolean> getVerdictCache() {
+        return verdictCache;
+    }
+
+    /**
+     * @return the rules which are no frame rules, these are added to the given list
+     */
+    private static List<String> splitFrameRules(List<String> rules, List<String> frameRules) {
+        List<String> classNameRules = new ArrayList<>(rules.size());
+
+        for (String rule : rules) {
+            if (FrameMatcher.isFrameRule(rule)) {
+                frameRules.add(rule);
+            } else {
+                classNameRules.add(rule);
+            }
+        }
+
+        return classNameRules;
+    }
+
+    private boolean classify(String className) {
+        if (allowedPackages.matches(className)) {
+            return false;
+        }
+
+        // if a whitelist is present everything else is blacklisted
+        if (!allowedPackages.isEmpty()) {
+            return true;
+        }
+
+        return filteredPackages.matches(className);
+    }
+}
@@ -0,0 +1,79 @@
+package org.glpste.logging.log4j2;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+/**
+ * Updates the package lists of running resolvers without reconfiguring Log4j2.
+ * <p>
+ * Resolvers configured with a {@code filterName} register their filter under this name. {@link #update(String, List, List)}
+ * compiles the new lists on the calling thread and swaps them into all resolvers registered under the name, logging
+ * threads keep rendering with the previous lists until then. Updates of the same name are applied one after another, so
+ * all resolvers of the name end up with the lists of the last update. The registry references the resolvers weakly, so the
+ * resolvers of a replaced configuration are not kept alive. A reconfiguration creates new resolvers with the configured
+ * lists again.
+ * </p>
+ */
+public final class StackTraceFilterRegistry {
+    private static final Map<String, Set<ReloadableStackTraceFilter>> FILTERS = new HashMap<>();
+    private static final Map<String, Object> UPDATE_LOCKS = new HashMap<>();
+
+    private StackTraceFilterRegistry() {}
+
+    /**
+     * Replaces the package lists of all resolvers registered under the name.
+     *
+     * @param filterName       the {@code filterName} of the resolvers
+     * @param allowedPackages  the packages to keep, all other packages are removed if not empty
+     * @param filteredPackages the packages to remove
+     * @return the number of updated resolvers
+     * @throws IllegalArgumentException if a list is {@code null}
+     */
+    public static int update(String filterName, List<String> allowedPackages, List<String> filteredPackages) {
+        if (allowedPackages == null || filteredPackages == null) {
+            throw new IllegalArgumentException("package lists must not be null");
+        }
+
+        Object updateLock;
+
+        synchronized (FILTERS) {
+            updateLock = UPDATE_LOCKS.computeIfAbsent(filterName, name -> new Object());
+        }
+
+        synchronized (updateLock) {
+            List<ReloadableStackTraceFilter> filters;
+
+            synchronized (FILTERS) {
+                Set<ReloadableStackTraceFilter> registeredFilters = FILTERS.get(filterName);
+
+                if (registeredFilters == null) {
+                    return 0;
+                }
+
+                filters = new ArrayList<>(registeredFilters);
+            }
+
+            // the registry lock is not held while compiling, so resolvers being created don't have to wait; the filter is
+            // compiled by the first resolver and shared with the others of the same verdict cache size
+            List<String> allowedPackagesCopy = new ArrayList<>(allowedPackages);
+            List<String> filteredPackagesCopy = new ArrayList<>(filteredPackages);
+
+            for (ReloadableStackTraceFilter filter : filters) {
+                filter.update(allowedPackagesCopy, filteredPackagesCopy);
+            }
+
+            return filters.size();
+        }
+    }
+
+    static void register(String filterName, ReloadableStackTraceFilter filter) {
+        synchronized (FILTERS) {
+            FILTERS.computeIfAbsent(filterName, name -> Collections.newSetFromMap(new WeakHashMap<>())).add(filter);
+        }
+    }
+}
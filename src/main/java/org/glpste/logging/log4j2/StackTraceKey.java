@@ -0,0 +1,115 @@
+package org.glpste.logging.log4j2;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Identifies a rendered stacktrace: the class, the message and the stacktrace elements of every rendered cause in the
+ * chain and how the chain ends (circular reference or omitted causes).
+ * <p>
+ * Two throwables with equal keys produce exactly the same output, so the key is used to look up already rendered
+ * stacktraces.
+ * </p>
+ */
+final class StackTraceKey {
+    private final Class<?>[] throwableClasses;
+    private final String[] messages;
+    private final StackTraceElement[][] stackTraces;
+    private final int circularReferenceIndex;
+    private final int omittedCauses;
+    private final int hashCode;
+
+    private StackTraceKey(Class<?>[] throwableClasses, String[] messages, StackTraceElement[][] stackTraces,
+                          int circularReferenceIndex, int omittedCauses) {
+        this.throwableClasses = throwableClasses;
+        this.messages = messages;
+        this.stackTraces = stackTraces;
+        this.circularReferenceIndex = circularReferenceIndex;
+        this.omittedCauses = omittedCauses;
+
+        int hash = 1;
+        for (int i = 0; i < throwableClasses.length; i++) {
+            hash = 31 * hash + throwableClasses[i].hashCode();
+            hash = 31 * hash + Objects.hashCode(messages[i]);
+            hash = 31 * hash + Arrays.hashCode(stackTraces[i]);
+        }
+        hash = 31 * hash + circularReferenceIndex;
+        hash = 31 * hash + omittedCauses;
+        this.hashCode = hash;
+    }
+
+    /**
+     * Creates the key for the throwable and its causes, walking the cause chain like the resolver does.
+     *
+     * @param throwable     the throwable to identify
+     * @param maxCauseDepth the max. number of causes rendered below the throwable
+     * @return the key of the throwable
+     */
+    static StackTraceKey of(Throwable throwable, int maxCauseDepth) {
+        List<Throwable> causes = new ArrayList<>();
+        Throwable root = throwable;
+        int circularReferenceIndex = -1;
+        int omittedCauses = 0;
+
+        while (throwable != null) {
+            int depth = causes.size();
+
+            if (depth > 0) {
+                circularReferenceIndex = CauseChain.indexOf(root, throwable, depth);
+
+                if (circularReferenceIndex >= 0) {
+                    break;
+                }
+
+                if (depth > maxCauseDepth) {
+                    omittedCauses = CauseChain.countDistinct(root) - depth;
+                    break;
+                }
+            }
+
+            causes.add(throwable);
+            throwable = throwable.getCause();
+        }
+
+        Class<?>[] throwableClasses = new Class<?>[causes.size()];
+        String[] messages = new String[causes.size()];
+        StackTraceElement[][] stackTraces = new StackTraceElement[causes.size()][];
+
+        for (int i = 0; i < causes.size(); i++) {
+            Throwable cause = causes.get(i);
+
+            throwableClasses[i] = cause.getClass();
+            messages[i] = cause.getMessage();
+            stackTraces[i] = cause.getStackTrace();
+        }
+
+        return new StackTraceKey(throwableClasses, messages, stackTraces, circularReferenceIndex, omittedCauses);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+
+        if (!(other instanceof StackTraceKey)) {
+            return false;
+        }
+
+        StackTraceKey otherKey = (StackTraceKey) other;
+
+        return hashCode == otherKey.hashCode
+                && circularReferenceIndex == otherKey.circularReferenceIndex
+                && omittedCauses == otherKey.omittedCauses
+                && Arrays.equals(throwableClasses, otherKey.throwableClasses)
+                && Arrays.equals(messages, otherKey.messages)
+                && Arrays.deepEquals(stackTraces, otherKey.stackTraces);
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+}
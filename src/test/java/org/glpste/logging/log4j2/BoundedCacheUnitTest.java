@@ -0,0 +1,90 @@
+package org.glpste.logging.log4j2;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+class BoundedCacheUnitTest {
+    @Test
+    void shouldReturnCachedValue_whenGet_givenValueCached() {
+        BoundedCache<String, Boolean> cache = new BoundedCache<>(10);
+
+        cache.putIfAbsent("org.junit.Test", Boolean.TRUE);
+
+        Assertions.assertThat(cache.get("org.junit.Test")).isTrue();
+        Assertions.assertThat(cache.get("org.junit.Other")).isNull();
+    }
+
+    @Test
+    void shouldKeepFirstValue_whenPutIfAbsent_givenKeyAlreadyCached() {
+        BoundedCache<String, Boolean> cache = new BoundedCache<>(10);
+
+        Assertions.assertThat(cache.putIfAbsent("key", Boolean.TRUE)).isNull();
+        Assertions.assertThat(cache.putIfAbsent("key", Boolean.FALSE)).isTrue();
+        Assertions.assertThat(cache.get("key")).isTrue();
+    }
+
+    @Test
+    void shouldEvictOldestEntry_whenPutIfAbsent_givenCacheIsFull() {
+        BoundedCache<String, Integer> cache = new BoundedCache<>(2);
+
+        cache.putIfAbsent("first", 1);
+        cache.putIfAbsent("second", 2);
+        cache.putIfAbsent("third", 3);
+
+        Assertions.assertThat(cache.get("first")).isNull();
+        Assertions.assertThat(cache.get("second")).isEqualTo(2);
+        Assertions.assertThat(cache.get("third")).isEqualTo(3);
+        Assertions.assertThat(cache.size()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldCountHitsAndMisses_whenGet_givenCachedAndUncachedKeys() {
+        BoundedCache<String, Boolean> cache = new BoundedCache<>(10);
+        cache.putIfAbsent("cached", Boolean.TRUE);
+
+        cache.get("cached");
+        cache.get("cached");
+        cache.get("uncached");
+
+        Assertions.assertThat(cache.hitCount()).isEqualTo(2);
+        Assertions.assertThat(cache.missCount()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldThrowException_whenConstructor_givenNoPositiveSize() {
+        Assertions.assertThatThrownBy(() -> new BoundedCache<>(0)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void shouldNotExceedMaxSize_whenPutIfAbsent_givenConcurrentWriters() throws Exception {
+        BoundedCache<Integer, Integer> cache = new BoundedCache<>(100);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<?>> futures = new ArrayList<>();
+
+        try {
+            for (int thread = 0; thread < 4; thread++) {
+                int offset = thread * 10_000;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 10_000; i++) {
+                        cache.putIfAbsent(offset + i, i);
+                    }
+                }));
+            }
+
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Assertions.assertThat(cache.size()).isLessThanOrEqualTo(100);
+    }
+}
@@ -0,0 +1,39 @@
+package org.glpste.logging.log4j2;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class CauseChainUnitTest {
+    @Test
+    void shouldCountAllThrowables_whenCountDistinct_givenChainWithoutCycle() {
+        Throwable givenThrowable = new IllegalStateException("a", new IllegalArgumentException("b", new ArithmeticException("c")));
+
+        Assertions.assertThat(CauseChain.countDistinct(givenThrowable)).isEqualTo(3);
+        Assertions.assertThat(CauseChain.countDistinct(null)).isZero();
+    }
+
+    @Test
+    void shouldCountEachThrowableOnce_whenCountDistinct_givenCycle() {
+        Throwable a = new IllegalStateException("a");
+        Throwable b = new IllegalArgumentException("b");
+        Throwable c = new ArithmeticException("c");
+        Throwable d = new UnsupportedOperationException("d");
+        a.initCause(b);
+        b.initCause(c);
+        c.initCause(d);
+        d.initCause(b);
+
+        Assertions.assertThat(CauseChain.countDistinct(a)).isEqualTo(4);
+    }
+
+    @Test
+    void shouldFindThrowable_whenIndexOf_givenThrowableWithinCount() {
+        Throwable c = new ArithmeticException("c");
+        Throwable b = new IllegalArgumentException("b", c);
+        Throwable a = new IllegalStateException("a", b);
+
+        Assertions.assertThat(CauseChain.indexOf(a, b, 3)).isEqualTo(1);
+        Assertions.assertThat(CauseChain.indexOf(a, c, 2)).isEqualTo(-1);
+        Assertions.assertThat(CauseChain.indexOf(a, new RuntimeException(), 3)).isEqualTo(-1);
+    }
+}
@@ -0,0 +1,39 @@
+package org.glpste.logging.log4j2;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class ClassNameAbbreviatorUnitTest {
+    private static final String CLASS_NAME = "org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter";
+
+    @Test
+    void shouldAbbreviateAllPackages_whenAbbreviate_givenMinimalTargetLength() {
+        ClassNameAbbreviator abbreviator = new ClassNameAbbreviator(1, 0);
+
+        Assertions.assertThat(abbreviator.abbreviate(CLASS_NAME)).isEqualTo("o.s.w.s.m.m.a.RequestMappingHandlerAdapter");
+    }
+
+    @Test
+    void shouldAbbreviateLeftmostPackagesOnly_whenAbbreviate_givenTargetLengthReachedEarly() {
+        ClassNameAbbreviator abbreviator = new ClassNameAbbreviator(60, 0);
+
+        Assertions.assertThat(abbreviator.abbreviate(CLASS_NAME)).isEqualTo("o.s.w.s.mvc.method.annotation.RequestMappingHandlerAdapter");
+    }
+
+    @Test
+    void shouldKeepClassName_whenAbbreviate_givenShortClassNameOrNoPackage() {
+        ClassNameAbbreviator abbreviator = new ClassNameAbbreviator(20, 0);
+
+        Assertions.assertThat(abbreviator.abbreviate("com.example.Main")).isEqualTo("com.example.Main");
+        Assertions.assertThat(abbreviator.abbreviate("AVeryLongClassNameWithoutAnyPackage")).isEqualTo("AVeryLongClassNameWithoutAnyPackage");
+    }
+
+    @Test
+    void shouldReturnCachedAbbreviation_whenAbbreviate_givenSameClassNameTwice() {
+        ClassNameAbbreviator abbreviator = new ClassNameAbbreviator(1, 10);
+
+        String firstAbbreviation = abbreviator.abbreviate(CLASS_NAME);
+
+        Assertions.assertThat(abbreviator.abbreviate(CLASS_NAME)).isSameAs(firstAbbreviation);
+    }
+}
@@ -0,0 +1,74 @@
+package org.glpste.logging.log4j2;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.regex.PatternSyntaxException;
+
+class ClassNameMatcherUnitTest {
+    @Test
+    void shouldMatchWholeClassName_whenMatches_givenGlobs() {
+        ClassNameMatcher matcher = new ClassNameMatcher(Arrays.asList("*.$$EnhancerBySpringCGLIB$$*",
+                "jdk.internal.reflect.*Accessor*", "com.sun.proxy.$Proxy?"));
+
+        Assertions.assertThat(matcher.matches("com.example.Service$$EnhancerBySpringCGLIB$$1a2b")).isFalse();
+        Assertions.assertThat(matcher.matches("com.example.$$EnhancerBySpringCGLIB$$1a2b")).isTrue();
+        Assertions.assertThat(matcher.matches("jdk.internal.reflect.GeneratedMethodAccessor12")).isTrue();
+        Assertions.assertThat(matcher.matches("com.sun.proxy.$Proxy7")).isTrue();
+        Assertions.assertThat(matcher.matches("com.sun.proxy.$Proxy17")).isFalse();
+        Assertions.assertThat(matcher.matches("jdk.internal.reflect.Reflection")).isFalse();
+    }
+
+    @Test
+    void shouldMatchRegex_whenMatches_givenRegexRule() {
+        ClassNameMatcher matcher = new ClassNameMatcher(Collections.singletonList("regex:.*\\$\\$Lambda.*"));
+
+        Assertions.assertThat(matcher.matches("com.example.Service$$Lambda$14/0x0000000800c0b000")).isTrue();
+        Assertions.assertThat(matcher.matches("com.example.Service")).isFalse();
+    }
+
+    @Test
+    void shouldCombineRules_whenMatches_givenPrefixesAndPatterns() {
+        ClassNameMatcher matcher = new ClassNameMatcher(Arrays.asList("org.junit.", "*CGLIB*", "regex:java\\.lang\\.reflect\\..*"));
+
+        Assertions.assertThat(matcher.matches("org.junit.jupiter.api.Test")).isTrue();
+        Assertions.assertThat(matcher.matches("com.example.Service$$SpringCGLIB$$0")).isTrue();
+        Assertions.assertThat(matcher.matches("java.lang.reflect.Method")).isTrue();
+        Assertions.assertThat(matcher.matches("java.lang.Thread")).isFalse();
+        Assertions.assertThat(matcher.isEmpty()).isFalse();
+    }
+
+    @Test
+    void shouldBeEmpty_whenIsEmpty_givenNoRules() {
+        Assertions.assertThat(new ClassNameMatcher(Collections.emptyList()).isEmpty()).isTrue();
+        Assertions.assertThat(new ClassNameMatcher(Collections.singletonList("*Proxy*")).isEmpty()).isFalse();
+    }
+
+    @Test
+    void shouldThrowException_whenCreated_givenInvalidRegex() {
+        Assertions.assertThatThrownBy(() -> new ClassNameMatcher(Arrays.asList("regex:org\\.junit\\..*", "regex:(")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasCauseInstanceOf(PatternSyntaxException.class)
+                .hasMessageContaining("regex:(");
+    }
+
+    @Test
+    void shouldThrowException_whenCreated_givenBackReference() {
+        Assertions.assertThatThrownBy(() -> new ClassNameMatcher(Arrays.asList("regex:(com)\\..*", "regex:(org)\\.\\1\\..*")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("regex:(org)\\.\\1\\..*");
+        Assertions.assertThatThrownBy(() -> new ClassNameMatcher(Collections.singletonList("regex:(?<p>org)\\.\\k<p>\\..*")))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void shouldMatchEachRule_whenMatches_givenCapturingGroupsInSeveralRules() {
+        ClassNameMatcher matcher = new ClassNameMatcher(Arrays.asList("regex:(com|org)\\.example\\..*", "regex:\\Q\\1\\E(net)\\..*"));
+
+        Assertions.assertThat(matcher.matches("org.example.Service")).isTrue();
+        Assertions.assertThat(matcher.matches("\\1net.Service")).isTrue();
+        Assertions.assertThat(matcher.matches("net.Service")).isFalse();
+    }
+}
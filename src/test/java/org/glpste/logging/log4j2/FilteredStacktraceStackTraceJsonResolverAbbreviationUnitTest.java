@@ -0,0 +1,41 @@
+package org.glpste.logging.log4j2;
+
+import org.apache.logging.log4j.layout.template.json.util.JsonWriter;
+import org.apache.logging.log4j.layout.template.json.util.QueueingRecyclerFactory;
+import org.assertj.core.api.Assertions;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.LinkedList;
+
+class FilteredStacktraceStackTraceJsonResolverAbbreviationUnitTest {
+    @Test
+    void shouldAbbreviateFrameClassNames_whenResolve_givenTargetLength() {
+        Throwable givenThrowable = new IllegalStateException("outer");
+        givenThrowable.setStackTrace(new StackTraceElement[]{
+                new StackTraceElement("org.springframework.web.servlet.DispatcherServlet", "doService", "DispatcherServlet.java", 10),
+                new StackTraceElement("com.example.Main", "main", "Main.java", 1)});
+
+        String actualStacktrace = resolve(givenThrowable, 20).getString(ConfigProperty.STACK.getDefaultValue());
+
+        Assertions.assertThat(actualStacktrace.split(System.lineSeparator())).containsExactly(
+                "java.lang.IllegalStateException: outer",
+                "\tat o.s.w.s.DispatcherServlet.doService(DispatcherServlet.java:10)",
+                "\tat com.example.Main.main(Main.java:1)");
+    }
+
+    private JSONObject resolve(Throwable throwable, int classNameTargetLength) {
+        JsonTemplateFieldConfig fieldConfig = JsonTemplateFieldConfig.builder()
+                .filteredPackages(Collections.singletonList("org.junit."))
+                .classNameTargetLength(classNameTargetLength)
+                .build();
+        FilteredStacktraceStackTraceJsonResolver resolver = new FilteredStacktraceStackTraceJsonResolver(
+                new QueueingRecyclerFactory(LinkedList::new), 60000, fieldConfig);
+        JsonWriter jsonWriter = JsonWriter.newBuilder().setMaxStringLength(60000).setTruncatedStringSuffix("...").build();
+
+        resolver.resolve(throwable, jsonWriter);
+
+        return new JSONObject(jsonWriter.getStringBuilder().toString());
+    }
+}
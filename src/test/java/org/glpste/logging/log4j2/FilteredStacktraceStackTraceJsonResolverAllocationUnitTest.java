@@ -0,0 +1,138 @@
+package org.glpste.logging.log4j2;
+
+import org.apache.logging.log4j.layout.template.json.resolver.EventResolverContext;
+import org.apache.logging.log4j.layout.template.json.util.JsonWriter;
+import org.apache.logging.log4j.layout.template.json.util.ThreadLocalRecyclerFactory;
+import org.assertj.core.api.Assertions;
+import org.assertj.core.api.Assumptions;
+import org.json.JSONObject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Guards the number of bytes allocated per {@link FilteredStacktraceStackTraceJsonResolver#resolve} call.
+ * <p>
+ * The budgets below are recorded from the current implementation plus some headroom. They are expressed per stacktrace
+ * element, as the depth of the test stacktraces depends on the JUnit and Java versions. If a change exceeds a budget, it
+ * allocates more than before: fix the change or update the budget deliberately.
+ * </p>
+ */
+@ExtendWith(MockitoExtension.class)
+class FilteredStacktraceStackTraceJsonResolverAllocationUnitTest {
+    private static final List<String> FILTERED_PACKAGES = Arrays.asList("org.junit", "java.", "jdk.", "sun.", "org.apache.maven", "org.mockito");
+
+    private static final int WARM_UP_ITERATIONS = 5_000;
+    private static final int MEASURED_ITERATIONS = 1_000;
+
+    /** fixed costs per event, independent of the stacktrace */
+    private static final long BUDGET_PER_EVENT = 1024;
+    /** the copy of the stacktrace array made by Throwable.getStackTrace() */
+    private static final long BUDGET_PER_ELEMENT = 8;
+    /** StackTraceElement.toString() of every element written to the output */
+    private static final long BUDGET_PER_RENDERED_ELEMENT = 1280;
+
+    @Mock
+    private EventResolverContext mockedEventResolverContext;
+
+    private com.sun.management.ThreadMXBean threadMXBean;
+
+    @BeforeEach
+    void setUp() {
+        ThreadMXBean platformThreadMXBean = ManagementFactory.getThreadMXBean();
+        Assumptions.assumeThat(platformThreadMXBean).isInstanceOf(com.sun.management.ThreadMXBean.class);
+
+        threadMXBean = (com.sun.management.ThreadMXBean) platformThreadMXBean;
+        Assumptions.assumeThat(threadMXBean.isThreadAllocatedMemorySupported()).isTrue();
+        threadMXBean.setThreadAllocatedMemoryEnabled(true);
+
+        // the recycler used by Log4j2 in garbage-free mode
+        Mockito.when(mockedEventResolverContext.getRecyclerFactory()).thenReturn(ThreadLocalRecyclerFactory.getInstance());
+        Mockito.when(mockedEventResolverContext.getMaxStringByteCount()).thenReturn(60000);
+    }
+
+    @Test
+    void shouldStayWithinBudget_whenResolve_givenShallowStacktrace() {
+        assertWithinBudget(JsonTemplateFieldConfig.builder(), new RuntimeException("outer", createExceptionWithStacktrace(0)), false);
+    }
+
+    @Test
+    void shouldStayWithinBudget_whenResolve_givenDeepStacktrace() {
+        assertWithinBudget(JsonTemplateFieldConfig.builder(), new RuntimeException("outer", createExceptionWithStacktrace(200)), false);
+    }
+
+    @Test
+    void shouldAllocateStacktraceCopiesOnly_whenResolve_givenGarbageFreeModeAndShallowStacktrace() {
+        assertWithinBudget(JsonTemplateFieldConfig.builder().garbageFree(true), new RuntimeException("outer", createExceptionWithStacktrace(0)), true);
+    }
+
+    @Test
+    void shouldAllocateStacktraceCopiesOnly_whenResolve_givenGarbageFreeModeAndDeepStacktrace() {
+        assertWithinBudget(JsonTemplateFieldConfig.builder().garbageFree(true), new RuntimeException("outer", createExceptionWithStacktrace(200)), true);
+    }
+
+    @Test
+    void shouldNotRenderAgain_whenResolve_givenRenderedStacktraceCacheHit() {
+        // a hit creates the cache key only, which holds the stacktrace copies
+        assertWithinBudget(JsonTemplateFieldConfig.builder().renderedStackTraceCacheSize(10), new RuntimeException("outer", createExceptionWithStacktrace(200)), true);
+    }
+
+    private void assertWithinBudget(JsonTemplateFieldConfig.Builder fieldConfigBuilder, Throwable throwable, boolean withoutRenderedElements) {
+        FilteredStacktraceStackTraceJsonResolver resolver = new FilteredStacktraceStackTraceJsonResolver(mockedEventResolverContext,
+                fieldConfigBuilder.filteredPackages(FILTERED_PACKAGES).build());
+        JsonWriter jsonWriter = JsonWriter.newBuilder().setMaxStringLength(60000).setTruncatedStringSuffix("...").build();
+
+        resolveRepeatedly(resolver, throwable, jsonWriter, WARM_UP_ITERATIONS);
+
+        long allocatedBytesBefore = threadMXBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+        resolveRepeatedly(resolver, throwable, jsonWriter, MEASURED_ITERATIONS);
+        long allocatedBytesPerEvent = (threadMXBean.getThreadAllocatedBytes(Thread.currentThread().getId()) - allocatedBytesBefore) / MEASURED_ITERATIONS;
+
+        int totalElements = countStackTraceElements(throwable);
+        int renderedElements = totalElements - new JSONObject(jsonWriter.getStringBuilder().toString()).getInt(ConfigProperty.COUNT.getDefaultValue());
+        long budget = BUDGET_PER_EVENT
+                + BUDGET_PER_ELEMENT * totalElements
+                + (withoutRenderedElements ? 0 : BUDGET_PER_RENDERED_ELEMENT * renderedElements);
+
+        Assertions.assertThat(allocatedBytesPerEvent)
+                .as("bytes allocated per event for %d stacktrace elements (%d rendered)", totalElements, renderedElements)
+                .isLessThanOrEqualTo(budget);
+    }
+
+    private static void resolveRepeatedly(FilteredStacktraceStackTraceJsonResolver resolver, Throwable throwable, JsonWriter jsonWriter, int iterations) {
+        for (int i = 0; i < iterations; i++) {
+            jsonWriter.getStringBuilder().setLength(0);
+            resolver.resolve(throwable, jsonWriter);
+        }
+    }
+
+    private static int countStackTraceElements(Throwable throwable) {
+        int elements = 0;
+
+        for (Throwable cause = throwable; cause != null; cause = cause.getCause()) {
+            elements += cause.getStackTrace().length;
+        }
+
+        return elements;
+    }
+
+    private Exception createExceptionWithStacktrace(int depth) {
+        if (depth > 0) {
+            return createExceptionWithStacktrace(depth - 1);
+        }
+
+        try {
+            throw new ArithmeticException("/ by zero");
+        } catch (Exception e) {
+            return e;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package org.glpste.logging.log4j2;
+
+import org.apache.logging.log4j.layout.template.json.resolver.EventResolverContext;
+import org.apache.logging.log4j.layout.template.json.util.JsonWriter;
+import org.apache.logging.log4j.layout.template.json.util.QueueingRecyclerFactory;
+import org.assertj.core.api.Assertions;
+import org.json.JSONObject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Collections;
+import java.util.LinkedList;
+
+@ExtendWith(MockitoExtension.class)
+class FilteredStacktraceStackTraceJsonResolverCauseChainUnitTest {
+    @Mock
+    private EventResolverContext mockedEventResolverContext;
+
+    @BeforeEach
+    void setUp() {
+        Mockito.when(mockedEventResolverContext.getRecyclerFactory()).thenReturn(new QueueingRecyclerFactory(LinkedList::new));
+        Mockito.when(mockedEventResolverContext.getMaxStringByteCount()).thenReturn(60000);
+    }
+
+    @Test
+    void shouldWriteCircularReference_whenResolve_givenCauseCycle() {
+        Throwable a = createThrowable("a");
+        Throwable b = createThrowable("b");
+        a.initCause(b);
+        b.initCause(a);
+
+        String actualStacktrace = resolve(a, 64, 0).getString(ConfigProperty.STACK.getDefaultValue());
+
+        Assertions.assertThat(actualStacktrace.split(System.lineSeparator())).containsExactly(
+                "java.lang.IllegalStateException: a",
+                "\tat com.example.Service.call(Service.java:1)",
+                "Caused by java.lang.IllegalStateException: b",
+                "\tat com.example.Service.call(Service.java:1)",
+                "\t[circular reference: java.lang.IllegalStateException: a]");
+    }
+
+    @Test
+    void shouldOmitCauses_whenResolve_givenChainLongerThanMaxCauseDepth() {
+        Throwable givenThrowable = createThrowable("0");
+        Throwable current = givenThrowable;
+        for (int i = 1; i < 10; i++) {
+            Throwable cause = createThrowable(String.valueOf(i));
+            current.initCause(cause);
+            current = cause;
+        }
+
+        String actualStacktrace = resolve(givenThrowable, 2, 0).getString(ConfigProperty.STACK.getDefaultValue());
+
+        Assertions.assertThat(actualStacktrace.split(System.lineSeparator())).containsExactly(
+                "java.lang.IllegalStateException: 0",
+                "\tat com.example.Service.call(Service.java:1)",
+                "Caused by java.lang.IllegalStateException: 1",
+                "\tat com.example.Service.call(Service.java:1)",
+                "Caused by java.lang.IllegalStateException: 2",
+                "\tat com.example.Service.call(Service.java:1)",
+                "\t[7 more causes omitted]");
+    }
+
+    @Test
+    void shouldCacheCircularReference_whenResolve_givenCauseCycleAndCacheEnabled() {
+        Throwable a = createThrowable("a");
+        Throwable b = createThrowable("b");
+        a.initCause(b);
+        b.initCause(a);
+
+        Assertions.assertThat(resolve(a, 64, 10).getString(ConfigProperty.STACK.getDefaultValue())).endsWith("[circular reference: java.lang.IllegalStateException: a]");
+        Assertions.assertThat(StackTraceKey.of(a, 64)).isEqualTo(StackTraceKey.of(a, 64)).isNotEqualTo(StackTraceKey.of(b, 64));
+    }
+
+    private Throwable createThrowable(String message) {
+        Throwable throwable = new IllegalStateException(message);
+        throwable.setStackTrace(new StackTraceElement[]{new StackTraceElement("com.example.Service", "call", "Service.java", 1)});
+
+        return throwable;
+    }
+
+    private JSONObject resolve(Throwable throwable, int maxCauseDepth, int renderedStackTraceCacheSize) {
+        JsonTemplateFieldConfig fieldConfig = JsonTemplateFieldConfig.builder()
+                .filteredPackages(Collections.singletonList("org.framework."))
+                .maxCauseDepth(maxCauseDepth)
+                .renderedStackTraceCacheSize(renderedStackTraceCacheSize)
+                .build();
+        FilteredStacktraceStackTraceJsonResolver resolver = new FilteredStacktraceStackTraceJsonResolver(mockedEventResolverContext, fieldConfig);
+        JsonWriter jsonWriter = JsonWriter.newBuilder().setMaxStringLength(60000).setTruncatedStringSuffix("...").build();
+
+        resolver.resolve(throwable, jsonWriter);
+
+        return new JSONObject(jsonWriter.getStringBuilder().toString());
+    }
+}
@@ -0,0 +1,94 @@
+package org.glpste.logging.log4j2;
+
+import org.apache.logging.log4j.layout.template.json.resolver.EventResolverContext;
+import org.apache.logging.log4j.layout.template.json.util.JsonWriter;
+import org.apache.logging.log4j.layout.template.json.util.QueueingRecyclerFactory;
+import org.assertj.core.api.Assertions;
+import org.json.JSONObject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+
+@ExtendWith(MockitoExtension.class)
+class FilteredStacktraceStackTraceJsonResolverCollapseRecursionUnitTest {
+    private static final StackTraceElement EVEN = new StackTraceElement("com.example.Parity", "isEven", "Parity.java", 10);
+    private static final StackTraceElement PROXY = new StackTraceElement("org.framework.Proxy", "invoke", "Proxy.java", 1);
+    private static final StackTraceElement ODD = new StackTraceElement("com.example.Parity", "isOdd", "Parity.java", 20);
+    private static final StackTraceElement MAIN = new StackTraceElement("com.example.Main", "main", "Main.java", 30);
+
+    @Mock
+    private EventResolverContext mockedEventResolverContext;
+
+    @BeforeEach
+    void setUp() {
+        Mockito.when(mockedEventResolverContext.getRecyclerFactory()).thenReturn(new QueueingRecyclerFactory(LinkedList::new));
+        Mockito.when(mockedEventResolverContext.getMaxStringByteCount()).thenReturn(60000);
+    }
+
+    @Test
+    void shouldRenderCycleOnce_whenResolve_givenRecursionCollapseEnabled() {
+        Throwable givenThrowable = createStackOverflowError(100);
+
+        JSONObject actualOutput = resolve(givenThrowable, true);
+
+        Assertions.assertThat(actualOutput.getString(ConfigProperty.STACK.getDefaultValue()).split(System.lineSeparator())).containsExactly(
+                "java.lang.StackOverflowError: null",
+                "\tat com.example.Parity.isEven(Parity.java:10)",
+                "\t[suppressed 1 lines]",
+                "\tat com.example.Parity.isOdd(Parity.java:20)",
+                "\t[3 lines repeated 100 times]",
+                "\tat com.example.Main.main(Main.java:30)");
+        Assertions.assertThat(actualOutput.getInt(ConfigProperty.COUNT.getDefaultValue())).isEqualTo(1);
+    }
+
+    @Test
+    void shouldRenderAllFrames_whenResolve_givenRecursionCollapseDisabled() {
+        String actualStacktrace = resolve(createStackOverflowError(100), false).getString(ConfigProperty.STACK.getDefaultValue());
+
+        Assertions.assertThat(actualStacktrace).doesNotContain("repeated");
+        Assertions.assertThat(actualStacktrace.split(System.lineSeparator())).hasSize(1 + 300 + 1);
+    }
+
+    @Test
+    void shouldNotCollapse_whenResolve_givenTooFewRepetitions() {
+        String actualStacktrace = resolve(createStackOverflowError(2), true).getString(ConfigProperty.STACK.getDefaultValue());
+
+        Assertions.assertThat(actualStacktrace).doesNotContain("repeated");
+    }
+
+    private Throwable createStackOverflowError(int repetitions) {
+        List<StackTraceElement> stackTrace = new ArrayList<>();
+        for (int i = 0; i < repetitions; i++) {
+            stackTrace.add(EVEN);
+            stackTrace.add(PROXY);
+            stackTrace.add(ODD);
+        }
+        stackTrace.add(MAIN);
+
+        Throwable throwable = new StackOverflowError();
+        throwable.setStackTrace(stackTrace.toArray(new StackTraceElement[0]));
+
+        return throwable;
+    }
+
+    private JSONObject resolve(Throwable throwable, boolean collapseRecursion) {
+        JsonTemplateFieldConfig fieldConfig = JsonTemplateFieldConfig.builder()
+                .filteredPackages(Collections.singletonList("org.framework."))
+                .collapseRecursion(collapseRecursion)
+                .build();
+        FilteredStacktraceStackTraceJsonResolver resolver = new FilteredStacktraceStackTraceJsonResolver(mockedEventResolverContext, fieldConfig);
+        JsonWriter jsonWriter = JsonWriter.newBuilder().setMaxStringLength(60000).setTruncatedStringSuffix("...").build();
+
+        resolver.resolve(throwable, jsonWriter);
+
+        return new JSONObject(jsonWriter.getStringBuilder().toString());
+    }
+}
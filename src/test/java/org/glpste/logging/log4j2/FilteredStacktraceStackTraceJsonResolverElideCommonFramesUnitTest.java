@@ -0,0 +1,100 @@
+package org.glpste.logging.log4j2;
+
+import org.apache.logging.log4j.layout.template.json.resolver.EventResolverContext;
+import org.apache.logging.log4j.layout.template.json.util.JsonWriter;
+import org.apache.logging.log4j.layout.template.json.util.QueueingRecyclerFactory;
+import org.assertj.core.api.Assertions;
+import org.json.JSONObject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Collections;
+import java.util.LinkedList;
+
+@ExtendWith(MockitoExtension.class)
+class FilteredStacktraceStackTraceJsonResolverElideCommonFramesUnitTest {
+    private static final StackTraceElement HANDLER = new StackTraceElement("com.example.Handler", "handle", "Handler.java", 10);
+    private static final StackTraceElement FRAMEWORK = new StackTraceElement("org.framework.Dispatcher", "dispatch", "Dispatcher.java", 20);
+    private static final StackTraceElement MAIN = new StackTraceElement("com.example.Main", "main", "Main.java", 30);
+
+    @Mock
+    private EventResolverContext mockedEventResolverContext;
+
+    @BeforeEach
+    void setUp() {
+        Mockito.when(mockedEventResolverContext.getRecyclerFactory()).thenReturn(new QueueingRecyclerFactory(LinkedList::new));
+        Mockito.when(mockedEventResolverContext.getMaxStringByteCount()).thenReturn(60000);
+    }
+
+    @Test
+    void shouldElideFramesInCommon_whenResolve_givenElisionEnabled() {
+        String actualStacktrace = resolve(createWrappedException(), true).getString(ConfigProperty.STACK.getDefaultValue());
+
+        Assertions.assertThat(actualStacktrace.split(System.lineSeparator())).containsExactly(
+                "java.lang.IllegalStateException: outer",
+                "\tat com.example.Service.call(Service.java:5)",
+                "\tat com.example.Handler.handle(Handler.java:10)",
+                "\t[suppressed 1 lines]",
+                "\tat com.example.Main.main(Main.java:30)",
+                "Caused by java.lang.ArithmeticException: inner",
+                "\tat com.example.Math.divide(Math.java:1)",
+                "\t... 3 more");
+    }
+
+    @Test
+    void shouldRenderAllFrames_whenResolve_givenElisionDisabled() {
+        String actualStacktrace = resolve(createWrappedException(), false).getString(ConfigProperty.STACK.getDefaultValue());
+
+        Assertions.assertThat(actualStacktrace).doesNotContain("more");
+        Assertions.assertThat(actualStacktrace.split(System.lineSeparator())).hasSize(10);
+    }
+
+    @Test
+    void shouldFlushSuppressedLinesBeforeMarker_whenResolve_givenFilteredFrameBeforeCommonFrames() {
+        Throwable cause = new ArithmeticException("inner");
+        cause.setStackTrace(new StackTraceElement[]{
+                new StackTraceElement("org.framework.Proxy", "invoke", "Proxy.java", 1), HANDLER, FRAMEWORK, MAIN});
+        Throwable givenThrowable = new IllegalStateException("outer", cause);
+        givenThrowable.setStackTrace(new StackTraceElement[]{FRAMEWORK, MAIN});
+
+        JSONObject actualOutput = resolve(givenThrowable, true);
+
+        Assertions.assertThat(actualOutput.getString(ConfigProperty.STACK.getDefaultValue()).split(System.lineSeparator())).containsExactly(
+                "java.lang.IllegalStateException: outer",
+                "\t[suppressed 1 lines]",
+                "\tat com.example.Main.main(Main.java:30)",
+                "Caused by java.lang.ArithmeticException: inner",
+                "\t[suppressed 1 lines]",
+                "\tat com.example.Handler.handle(Handler.java:10)",
+                "\t... 2 more");
+        Assertions.assertThat(actualOutput.getInt(ConfigProperty.COUNT.getDefaultValue())).isEqualTo(2);
+    }
+
+    private Throwable createWrappedException() {
+        Throwable cause = new ArithmeticException("inner");
+        cause.setStackTrace(new StackTraceElement[]{
+                new StackTraceElement("com.example.Math", "divide", "Math.java", 1), HANDLER, FRAMEWORK, MAIN});
+        Throwable throwable = new IllegalStateException("outer", cause);
+        throwable.setStackTrace(new StackTraceElement[]{
+                new StackTraceElement("com.example.Service", "call", "Service.java", 5), HANDLER, FRAMEWORK, MAIN});
+
+        return throwable;
+    }
+
+    private JSONObject resolve(Throwable throwable, boolean elideCommonFrames) {
+        JsonTemplateFieldConfig fieldConfig = JsonTemplateFieldConfig.builder()
+                .filteredPackages(Collections.singletonList("org.framework."))
+                .elideCommonFrames(elideCommonFrames)
+                .build();
+        FilteredStacktraceStackTraceJsonResolver resolver = new FilteredStacktraceStackTraceJsonResolver(mockedEventResolverContext, fieldConfig);
+        JsonWriter jsonWriter = JsonWriter.newBuilder().setMaxStringLength(60000).setTruncatedStringSuffix("...").build();
+
+        resolver.resolve(throwable, jsonWriter);
+
+        return new JSONObject(jsonWriter.getStringBuilder().toString());
+    }
+}
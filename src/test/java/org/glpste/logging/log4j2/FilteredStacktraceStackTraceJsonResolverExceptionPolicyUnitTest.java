@@ -0,0 +1,106 @@
+package org.glpste.logging.log4j2;
+
+import org.apache.logging.log4j.layout.template.json.util.JsonWriter;
+import org.apache.logging.log4j.layout.template.json.util.QueueingRecyclerFactory;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.SocketTimeoutException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.Map;
+
+class FilteredStacktraceStackTraceJsonResolverExceptionPolicyUnitTest {
+    @Test
+    void shouldLimitFrames_whenResolve_givenPolicyOfSuperclass() {
+        FilteredStacktraceStackTraceJsonResolver resolver = createResolver(Collections.singletonMap("java.io.IOException",
+                new ExceptionPolicy(1, null, null, false)));
+
+        String output = resolve(resolver, new SocketTimeoutException("Read timed out"));
+
+        Assertions.assertThat(output).containsOnlyOnce("\\tat ").contains("lines omitted]");
+    }
+
+    @Test
+    void shouldRenderFullStackTrace_whenResolve_givenExceptionWithoutPolicy() {
+        FilteredStacktraceStackTraceJsonResolver resolver = createResolver(Collections.singletonMap("java.io.IOException",
+                new ExceptionPolicy(1, null, null, false)));
+
+        String output = resolve(resolver, new IllegalStateException("invalid"));
+
+        Assertions.assertThat(output).doesNotContain("lines omitted]");
+    }
+
+    @Test
+    void shouldWriteNullStack_whenResolve_givenOmitStackPolicy() {
+        FilteredStacktraceStackTraceJsonResolver resolver = createResolver(Collections.singletonMap("java.lang.IllegalArgumentException",
+                new ExceptionPolicy(null, null, null, true)));
+
+        String output = resolve(resolver, new NumberFormatException("abc"));
+
+        Assertions.assertThat(output).contains("\"extendedStackTrace\":null").contains("\"totalFilteredElements\":0");
+    }
+
+    @Test
+    void shouldUsePolicyLists_whenResolve_givenPolicyWithFilteredPackages() {
+        Map<String, ExceptionPolicy> policies = new HashMap<>();
+        policies.put("java.io.UncheckedIOException", new ExceptionPolicy(null, null, Collections.singletonList("org.glpste."), false));
+        FilteredStacktraceStackTraceJsonResolver resolver = createResolver(policies);
+
+        String policyOutput = resolve(resolver, new UncheckedIOException(new IOException("disk full")));
+        String configuredOutput = resolve(resolver, new IllegalStateException("invalid"));
+
+        Assertions.assertThat(policyOutput).doesNotContain("at org.glpste.").contains("at org.junit.");
+        Assertions.assertThat(configuredOutput).contains("at org.glpste.").doesNotContain("at org.junit.");
+    }
+
+    @Test
+    void shouldCachePolicyPerClass_whenGet_givenSubclasses() {
+        ExceptionPolicies policies = new ExceptionPolicies(Collections.singletonMap("java.lang.RuntimeException",
+                new ExceptionPolicy(2, null, null, false)), JsonTemplateFieldConfig.builder().build());
+
+        ExceptionPolicies.CompiledPolicy policy = policies.get(IllegalStateException.class);
+
+        Assertions.assertThat(policy.maxRenderedFrames).isEqualTo(2);
+        Assertions.assertThat(policies.get(IllegalArgumentException.class)).isSameAs(policy);
+        Assertions.assertThat(policies.get(IOException.class)).isSameAs(ExceptionPolicies.CompiledPolicy.NONE);
+    }
+
+    @Test
+    void shouldReadPolicies_whenFromConfig_givenJsonObjects() {
+        Map<String, Object> policyConfig = new HashMap<>();
+        policyConfig.put("maxRenderedFrames", 3);
+        policyConfig.put("filteredPackages", Collections.singletonList("org.junit."));
+
+        Map<String, ExceptionPolicy> policies = ExceptionPolicy.fromConfig(Collections.singletonMap("java.net.SocketTimeoutException", policyConfig));
+
+        ExceptionPolicy policy = policies.get("java.net.SocketTimeoutException");
+        Assertions.assertThat(policy.getMaxRenderedFrames()).isEqualTo(3);
+        Assertions.assertThat(policy.getFilteredPackages()).containsExactly("org.junit.");
+        Assertions.assertThat(policy.getAllowedPackages()).isNull();
+        Assertions.assertThat(policy.isOmitStack()).isFalse();
+        Assertions.assertThat(ExceptionPolicy.fromConfig(null)).isNull();
+        Assertions.assertThatThrownBy(() -> ExceptionPolicy.fromConfig(Collections.singletonMap("java.lang.Exception", "all")))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private FilteredStacktraceStackTraceJsonResolver createResolver(Map<String, ExceptionPolicy> policies) {
+        JsonTemplateFieldConfig fieldConfig = JsonTemplateFieldConfig.builder()
+                .filteredPackages(Collections.singletonList("org.junit."))
+                .exceptionPolicies(policies)
+                .build();
+
+        return new FilteredStacktraceStackTraceJsonResolver(new QueueingRecyclerFactory(LinkedList::new), 60000, fieldConfig);
+    }
+
+    private String resolve(FilteredStacktraceStackTraceJsonResolver resolver, Throwable throwable) {
+        JsonWriter jsonWriter = JsonWriter.newBuilder().setMaxStringLength(60000).setTruncatedStringSuffix("...").build();
+
+        resolver.resolve(throwable, jsonWriter);
+
+        return jsonWriter.getStringBuilder().toString();
+    }
+}
@@ -0,0 +1,124 @@
+package org.glpste.logging.log4j2;
+
+import org.apache.logging.log4j.layout.template.json.util.JsonWriter;
+import org.apache.logging.log4j.layout.template.json.util.QueueingRecyclerFactory;
+import org.assertj.core.api.Assertions;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.function.UnaryOperator;
+
+class FilteredStacktraceStackTraceJsonResolverFingerprintUnitTest {
+    @Test
+    void shouldWriteSameFingerprint_whenResolve_givenExceptionsDifferingInMessageAndLineNumbers() {
+        JSONObject firstOutput = resolve(createThrowable("order 1", 10, "com.example.Framework"), true, 0);
+        JSONObject secondOutput = resolve(createThrowable("order 2", 20, "com.example.Framework"), true, 0);
+
+        Assertions.assertThat(firstOutput.getString("fingerprint")).matches("[0-9a-f]{16}");
+        Assertions.assertThat(secondOutput.getString("fingerprint")).isEqualTo(firstOutput.getString("fingerprint"));
+    }
+
+    @Test
+    void shouldIgnoreFilteredFrames_whenResolve_givenExceptionsDifferingInFilteredFramesOnly() {
+        JSONObject firstOutput = resolve(createThrowable("error", 10, "org.framework.Proxy"), true, 0);
+        JSONObject secondOutput = resolve(createThrowable("error", 10, "org.framework.OtherProxy"), true, 0);
+
+        Assertions.assertThat(secondOutput.getString("fingerprint")).isEqualTo(firstOutput.getString("fingerprint"));
+    }
+
+    @Test
+    void shouldWriteDifferentFingerprint_whenResolve_givenDifferentKeptFrames() {
+        JSONObject firstOutput = resolve(createThrowable("error", 10, "com.example.Framework"), true, 0);
+        JSONObject secondOutput = resolve(createThrowable("error", 10, "com.example.OtherFramework"), true, 0);
+
+        Assertions.assertThat(secondOutput.getString("fingerprint")).isNotEqualTo(firstOutput.getString("fingerprint"));
+    }
+
+    @Test
+    void shouldWriteCachedFingerprint_whenResolve_givenRenderedStackTraceCacheEnabled() {
+        Throwable givenThrowable = createThrowable("error", 10, "com.example.Framework");
+
+        String expectedFingerprint = resolve(givenThrowable, true, 0).getString("fingerprint");
+
+        Assertions.assertThat(resolve(givenThrowable, true, 10).getString("fingerprint")).isEqualTo(expectedFingerprint);
+    }
+
+    @Test
+    void shouldWriteSameFingerprint_whenResolve_givenFramesLimitedElidedOrTruncated() {
+        Throwable givenThrowable = createDeepThrowable("error");
+        String expectedFingerprint = resolve(givenThrowable, builder -> builder, 60000).getString("fingerprint");
+
+        Assertions.assertThat(resolve(givenThrowable, builder -> builder.maxRenderedFrames(2), 60000).getString("fingerprint"))
+                .isEqualTo(expectedFingerprint);
+        Assertions.assertThat(resolve(givenThrowable, builder -> builder.elideCommonFrames(true), 60000).getString("fingerprint"))
+                .isEqualTo(expectedFingerprint);
+        Assertions.assertThat(resolve(givenThrowable, builder -> builder.collapseRecursion(true), 60000).getString("fingerprint"))
+                .isEqualTo(expectedFingerprint);
+        Assertions.assertThat(resolve(givenThrowable, builder -> builder.headAndTailTruncation(true), 300).getString("fingerprint"))
+                .isEqualTo(expectedFingerprint);
+        Assertions.assertThat(resolve(createDeepThrowable(String.join("", Collections.nCopies(100, "long message "))),
+                builder -> builder.headAndTailTruncation(true), 300).getString("fingerprint"))
+                .isEqualTo(expectedFingerprint);
+    }
+
+    @Test
+    void shouldOmitFingerprint_whenResolve_givenFingerprintDisabled() {
+        Assertions.assertThat(resolve(createThrowable("error", 10, "com.example.Framework"), false, 0).has("fingerprint")).isFalse();
+    }
+
+    private Throwable createThrowable(String message, int lineNumber, String frameworkClass) {
+        Throwable cause = new ArithmeticException(message);
+        cause.setStackTrace(new StackTraceElement[]{new StackTraceElement("com.example.Math", "divide", "Math.java", lineNumber)});
+        Throwable throwable = new IllegalStateException(message, cause);
+        throwable.setStackTrace(new StackTraceElement[]{
+                new StackTraceElement("com.example.Service", "call", "Service.java", lineNumber),
+                new StackTraceElement(frameworkClass, "invoke", "Framework.java", lineNumber)});
+
+        return throwable;
+    }
+
+    private Throwable createDeepThrowable(String message) {
+        StackTraceElement[] stackTrace = new StackTraceElement[20];
+        for (int i = 0; i < stackTrace.length; i++) {
+            stackTrace[i] = new StackTraceElement("com.example.Recursion", "visit", "Recursion.java", i % 2);
+        }
+        Throwable cause = new ArithmeticException(message);
+        cause.setStackTrace(stackTrace);
+        Throwable throwable = new IllegalStateException(message, cause);
+        throwable.setStackTrace(Arrays.copyOfRange(stackTrace, 5, stackTrace.length));
+
+        return throwable;
+    }
+
+    private JSONObject resolve(Throwable throwable, UnaryOperator<JsonTemplateFieldConfig.Builder> configuration, int maxStringByteCount) {
+        JsonTemplateFieldConfig fieldConfig = configuration.apply(JsonTemplateFieldConfig.builder().fingerprint(true)).build();
+        FilteredStacktraceStackTraceJsonResolver resolver = new FilteredStacktraceStackTraceJsonResolver(
+                new QueueingRecyclerFactory(LinkedList::new), maxStringByteCount, fieldConfig);
+        JsonWriter jsonWriter = JsonWriter.newBuilder().setMaxStringLength(60000).setTruncatedStringSuffix("...").build();
+
+        resolver.resolve(throwable, jsonWriter);
+
+        return new JSONObject(jsonWriter.getStringBuilder().toString());
+    }
+
+    private JSONObject resolve(Throwable throwable, boolean fingerprint, int renderedStackTraceCacheSize) {
+        JsonTemplateFieldConfig fieldConfig = JsonTemplateFieldConfig.builder()
+                .filteredPackages(Collections.singletonList("org.framework."))
+                .fingerprint(fingerprint)
+                .renderedStackTraceCacheSize(renderedStackTraceCacheSize)
+                .build();
+        FilteredStacktraceStackTraceJsonResolver resolver = new FilteredStacktraceStackTraceJsonResolver(
+                new QueueingRecyclerFactory(LinkedList::new), 60000, fieldConfig);
+        JsonWriter jsonWriter = JsonWriter.newBuilder().setMaxStringLength(60000).setTruncatedStringSuffix("...").build();
+
+        resolver.resolve(throwable, jsonWriter);
+        // second call to hit the cache, if enabled
+        jsonWriter.getStringBuilder().setLength(0);
+        resolver.resolve(throwable, jsonWriter);
+
+        return new JSONObject(jsonWriter.getStringBuilder().toString());
+    }
+}
@@ -0,0 +1,116 @@
+package org.glpste.logging.log4j2;
+
+import org.apache.logging.log4j.layout.template.json.util.JsonWriter;
+import org.apache.logging.log4j.layout.template.json.util.QueueingRecyclerFactory;
+import org.assertj.core.api.Assertions;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.LinkedList;
+
+class FilteredStacktraceStackTraceJsonResolverFrameDictionaryUnitTest {
+    @Test
+    void shouldWriteIdOnly_whenResolve_givenFramesSeenBefore() {
+        FilteredStacktraceStackTraceJsonResolver resolver = createResolver("string", 100);
+
+        String firstStacktrace = resolve(resolver, createThrowable()).getString(ConfigProperty.STACK.getDefaultValue());
+        String secondStacktrace = resolve(resolver, createThrowable()).getString(ConfigProperty.STACK.getDefaultValue());
+
+        Assertions.assertThat(firstStacktrace.split(System.lineSeparator())).containsExactly(
+                "java.lang.IllegalStateException: outer",
+                "\tat #1 com.example.Service.call(Service.java:5)",
+                "\tat #2 com.example.Main.main(Main.java:1)");
+        Assertions.assertThat(secondStacktrace.split(System.lineSeparator())).containsExactly(
+                "java.lang.IllegalStateException: outer",
+                "\tat #1",
+                "\tat #2");
+    }
+
+    @Test
+    void shouldWriteTextAgainWithNewId_whenResolve_givenFrameEvicted() {
+        FilteredStacktraceStackTraceJsonResolver resolver = createResolver("string", 1);
+
+        resolve(resolver, createThrowable());
+        String actualStacktrace = resolve(resolver, createThrowable()).getString(ConfigProperty.STACK.getDefaultValue());
+
+        Assertions.assertThat(actualStacktrace).contains("\tat #3 com.example.Service.call(Service.java:5)");
+        Assertions.assertThat(resolver.getFrameDictionary().size()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldWriteIdObject_whenResolve_givenObjectsFormat() {
+        FilteredStacktraceStackTraceJsonResolver resolver = createResolver("objects", 100);
+
+        JSONArray firstFrames = resolve(resolver, createThrowable()).getJSONArray(ConfigProperty.STACK.getDefaultValue()).getJSONObject(0).getJSONArray("frames");
+        JSONArray secondFrames = resolve(resolver, createThrowable()).getJSONArray(ConfigProperty.STACK.getDefaultValue()).getJSONObject(0).getJSONArray("frames");
+
+        Assertions.assertThat(firstFrames.getJSONObject(0).getInt("id")).isEqualTo(1);
+        Assertions.assertThat(firstFrames.getJSONObject(0).getString("class")).isEqualTo("com.example.Service");
+        Assertions.assertThat(secondFrames.getJSONObject(0).toMap()).containsOnlyKeys("id").containsEntry("id", 1);
+    }
+
+    @Test
+    void shouldNotReplayCachedIds_whenResolve_givenRenderedStackTraceCacheEnabled() {
+        JsonTemplateFieldConfig fieldConfig = JsonTemplateFieldConfig.builder()
+                .frameDictionarySize(100)
+                .renderedStackTraceCacheSize(10)
+                .build();
+        FilteredStacktraceStackTraceJsonResolver resolver = new FilteredStacktraceStackTraceJsonResolver(
+                new QueueingRecyclerFactory(LinkedList::new), 60000, fieldConfig);
+        Throwable givenThrowable = createThrowable();
+
+        resolve(resolver, givenThrowable);
+        String actualStacktrace = resolve(resolver, givenThrowable).getString(ConfigProperty.STACK.getDefaultValue());
+
+        Assertions.assertThat(resolver.getRenderedStackTraceCache()).isNull();
+        Assertions.assertThat(actualStacktrace.split(System.lineSeparator())).containsExactly(
+                "java.lang.IllegalStateException: outer",
+                "\tat #1",
+                "\tat #2");
+    }
+
+    @Test
+    void shouldWriteTextAgain_whenResolve_givenFrameTextTruncated() {
+        FilteredStacktraceStackTraceJsonResolver resolver = createResolver("string", 100, 60);
+
+        String firstStacktrace = resolve(resolver, createThrowable()).getString(ConfigProperty.STACK.getDefaultValue());
+        String secondStacktrace = resolve(resolver, createThrowable()).getString(ConfigProperty.STACK.getDefaultValue());
+
+        Assertions.assertThat(firstStacktrace).contains("\tat #1 com.example.").doesNotContain("Service.java:5");
+        Assertions.assertThat(secondStacktrace).contains("\tat #2 com.example.");
+        Assertions.assertThat(resolver.getFrameDictionary().get(createThrowable().getStackTrace()[0])).isNull();
+    }
+
+    private Throwable createThrowable() {
+        Throwable throwable = new IllegalStateException("outer");
+        throwable.setStackTrace(new StackTraceElement[]{
+                new StackTraceElement("com.example.Service", "call", "Service.java", 5),
+                new StackTraceElement("com.example.Main", "main", "Main.java", 1)});
+
+        return throwable;
+    }
+
+    private FilteredStacktraceStackTraceJsonResolver createResolver(String stackFormat, int frameDictionarySize) {
+        return createResolver(stackFormat, frameDictionarySize, 60000);
+    }
+
+    private FilteredStacktraceStackTraceJsonResolver createResolver(String stackFormat, int frameDictionarySize, int maxStringByteCount) {
+        JsonTemplateFieldConfig fieldConfig = JsonTemplateFieldConfig.builder()
+                .filteredPackages(Collections.singletonList("org.framework."))
+                .stackFormat(stackFormat)
+                .frameDictionarySize(frameDictionarySize)
+                .build();
+
+        return new FilteredStacktraceStackTraceJsonResolver(new QueueingRecyclerFactory(LinkedList::new), maxStringByteCount, fieldConfig);
+    }
+
+    private JSONObject resolve(FilteredStacktraceStackTraceJsonResolver resolver, Throwable throwable) {
+        JsonWriter jsonWriter = JsonWriter.newBuilder().setMaxStringLength(60000).setTruncatedStringSuffix("...").build();
+
+        resolver.resolve(throwable, jsonWriter);
+
+        return new JSONObject(jsonWriter.getStringBuilder().toString());
+    }
+}
@@ -0,0 +1,63 @@
+package org.glpste.logging.log4j2;
+
+import org.apache.logging.log4j.layout.template.json.util.JsonWriter;
+import org.apache.logging.log4j.layout.template.json.util.QueueingRecyclerFactory;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.LinkedList;
+
+class FilteredStacktraceStackTraceJsonResolverFrameTextCacheUnitTest {
+    @Test
+    void shouldRenderSameOutput_whenResolve_givenFrameTextCacheEnabled() {
+        Throwable givenThrowable = new IllegalStateException("outer \"quoted\"", createExceptionWithStacktrace());
+        FilteredStacktraceStackTraceJsonResolver cachingResolver = createResolver(60000, 100);
+
+        String expectedOutput = resolve(createResolver(60000, 0), givenThrowable);
+        String firstOutput = resolve(cachingResolver, givenThrowable);
+        String secondOutput = resolve(cachingResolver, givenThrowable);
+
+        Assertions.assertThat(firstOutput).isEqualTo(expectedOutput);
+        Assertions.assertThat(secondOutput).isEqualTo(expectedOutput);
+        Assertions.assertThat(cachingResolver.getFrameTextCache().size()).isPositive();
+        Assertions.assertThat(cachingResolver.getFrameTextCache().hitCount()).isPositive();
+    }
+
+    @Test
+    void shouldTruncateLikeUncachedRendering_whenResolve_givenCachedFrameExceedingCapacity() {
+        Throwable givenThrowable = createExceptionWithStacktrace();
+        FilteredStacktraceStackTraceJsonResolver cachingResolver = createResolver(150, 100);
+
+        resolve(createResolver(60000, 0), givenThrowable);
+        String expectedOutput = resolve(createResolver(150, 0), givenThrowable);
+        resolve(cachingResolver, givenThrowable);
+
+        Assertions.assertThat(resolve(cachingResolver, givenThrowable)).isEqualTo(expectedOutput);
+    }
+
+    private FilteredStacktraceStackTraceJsonResolver createResolver(int maxStringByteCount, int frameTextCacheSize) {
+        JsonTemplateFieldConfig fieldConfig = JsonTemplateFieldConfig.builder()
+                .filteredPackages(Collections.singletonList("org.junit"))
+                .frameTextCacheSize(frameTextCacheSize)
+                .build();
+
+        return new FilteredStacktraceStackTraceJsonResolver(new QueueingRecyclerFactory(LinkedList::new), maxStringByteCount, fieldConfig);
+    }
+
+    private String resolve(FilteredStacktraceStackTraceJsonResolver resolver, Throwable throwable) {
+        JsonWriter jsonWriter = JsonWriter.newBuilder().setMaxStringLength(60000).setTruncatedStringSuffix("...").build();
+
+        resolver.resolve(throwable, jsonWriter);
+
+        return jsonWriter.getStringBuilder().toString();
+    }
+
+    private Exception createExceptionWithStacktrace() {
+        try {
+            throw new ArithmeticException("/ by zero");
+        } catch (Exception e) {
+            return e;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package org.glpste.logging.log4j2;
+
+import org.apache.logging.log4j.layout.template.json.resolver.EventResolverContext;
+import org.apache.logging.log4j.layout.template.json.util.JsonWriter;
+import org.apache.logging.log4j.layout.template.json.util.QueueingRecyclerFactory;
+import org.assertj.core.api.Assertions;
+import org.json.JSONObject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Collections;
+import java.util.LinkedList;
+
+@ExtendWith(MockitoExtension.class)
+class FilteredStacktraceStackTraceJsonResolverGarbageFreeUnitTest {
+    @Mock
+    private EventResolverContext mockedEventResolverContext;
+
+    @BeforeEach
+    void setUp() {
+        Mockito.when(mockedEventResolverContext.getRecyclerFactory()).thenReturn(new QueueingRecyclerFactory(LinkedList::new));
+        Mockito.when(mockedEventResolverContext.getMaxStringByteCount()).thenReturn(60000);
+    }
+
+    @Test
+    void shouldRenderSameStacktrace_whenResolve_givenGarbageFreeModeEnabled() {
+        Throwable givenThrowable = new IllegalStateException("outer", createExceptionWithStacktrace());
+
+        JSONObject garbageFreeOutput = resolve(givenThrowable, true);
+        JSONObject defaultOutput = resolve(givenThrowable, false);
+
+        // StackTraceElement.toString() adds the module name on newer Java versions, which is not available in Java 8
+        String defaultStacktraceWithoutModules = defaultOutput.getString(ConfigProperty.STACK.getDefaultValue()).replaceAll("\tat [^/\\s(]+/", "\tat ");
+
+        Assertions.assertThat(garbageFreeOutput.getString(ConfigProperty.STACK.getDefaultValue())).isEqualTo(defaultStacktraceWithoutModules);
+        Assertions.assertThat(garbageFreeOutput.getInt(ConfigProperty.COUNT.getDefaultValue())).isEqualTo(defaultOutput.getInt(ConfigProperty.COUNT.getDefaultValue()));
+    }
+
+    @Test
+    void shouldRenderNativeAndUnknownSourceElements_whenResolve_givenGarbageFreeModeEnabled() {
+        Throwable givenThrowable = new RuntimeException("synthetic");
+        givenThrowable.setStackTrace(new StackTraceElement[]{
+                new StackTraceElement("com.example.Native", "call", null, -2),
+                new StackTraceElement("com.example.Unknown", "call", null, -1),
+                new StackTraceElement("com.example.NoLine", "call", "NoLine.java", -1),
+                new StackTraceElement("com.example.Line", "call", "Line.java", 42)
+        });
+
+        String actualStacktrace = resolve(givenThrowable, true).getString(ConfigProperty.STACK.getDefaultValue());
+
+        Assertions.assertThat(actualStacktrace.split(System.lineSeparator())).containsExactly(
+                "java.lang.RuntimeException: synthetic",
+                "\tat com.example.Native.call(Native Method)",
+                "\tat com.example.Unknown.call(Unknown Source)",
+                "\tat com.example.NoLine.call(NoLine.java)",
+                "\tat com.example.Line.call(Line.java:42)");
+    }
+
+    private JSONObject resolve(Throwable throwable, boolean garbageFree) {
+        JsonTemplateFieldConfig fieldConfig = JsonTemplateFieldConfig.builder()
+                .filteredPackages(Collections.singletonList("org.junit"))
+                .garbageFree(garbageFree)
+                .build();
+        FilteredStacktraceStackTraceJsonResolver resolver = new FilteredStacktraceStackTraceJsonResolver(mockedEventResolverContext, fieldConfig);
+        JsonWriter jsonWriter = JsonWriter.newBuilder().setMaxStringLength(60000).setTruncatedStringSuffix("...").build();
+
+        resolver.resolve(throwable, jsonWriter);
+
+        return new JSONObject(jsonWriter.getStringBuilder().toString());
+    }
+
+    private Exception createExceptionWithStacktrace() {
+        try {
+            throw new ArithmeticException("/ by zero");
+        } catch (Exception e) {
+            return e;
+        }
+    }
+}
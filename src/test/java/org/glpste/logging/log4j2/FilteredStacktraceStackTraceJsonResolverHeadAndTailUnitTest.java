@@ -0,0 +1,98 @@
+package org.glpste.logging.log4j2;
+
+import org.apache.logging.log4j.layout.template.json.util.JsonWriter;
+import org.apache.logging.log4j.layout.template.json.util.QueueingRecyclerFactory;
+import org.assertj.core.api.Assertions;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedList;
+
+class FilteredStacktraceStackTraceJsonResolverHeadAndTailUnitTest {
+    private static final int MAX_STRING_BYTE_COUNT = 1000;
+
+    @Test
+    void shouldKeepHeadAndRootCause_whenResolve_givenStacktraceExceedingBudget() {
+        String actualStacktrace = resolve(createCauseChain(20, 20), true).getString(ConfigProperty.STACK.getDefaultValue());
+        String[] actualLines = actualStacktrace.split(System.lineSeparator());
+
+        Assertions.assertThat(actualStacktrace.length()).isLessThanOrEqualTo(MAX_STRING_BYTE_COUNT);
+        Assertions.assertThat(actualLines[0]).isEqualTo("java.lang.IllegalStateException: cause 0");
+        Assertions.assertThat(actualLines[1]).isEqualTo("\tat com.example.Service0.call(Service0.java:0)");
+        Assertions.assertThat(actualStacktrace).containsPattern("\t\\[\\d+ lines omitted]");
+        Assertions.assertThat(actualStacktrace).containsPattern("\t\\[\\d+ causes omitted]" + System.lineSeparator() + "Caused by java.lang.IllegalStateException: cause 19");
+        Assertions.assertThat(actualStacktrace).contains("\tat com.example.Service19.call(Service19.java:0)");
+    }
+
+    @Test
+    void shouldKeepRootCause_whenResolve_givenTwoThrowablesExceedingBudget() {
+        Throwable givenThrowable = createCauseChain(2, 200);
+        givenThrowable.getCause().setStackTrace(Arrays.copyOf(givenThrowable.getCause().getStackTrace(), 5));
+
+        String actualStacktrace = resolve(givenThrowable, true).getString(ConfigProperty.STACK.getDefaultValue());
+
+        Assertions.assertThat(actualStacktrace.length()).isLessThanOrEqualTo(MAX_STRING_BYTE_COUNT);
+        Assertions.assertThat(actualStacktrace).containsPattern("\t\\[\\d+ lines omitted]" + System.lineSeparator()
+                + "Caused by java.lang.IllegalStateException: cause 1");
+        Assertions.assertThat(actualStacktrace).doesNotContain("causes omitted").doesNotContain("cause omitted")
+                .endsWith("\tat com.example.Service1.call(Service1.java:4)");
+    }
+
+    @Test
+    void shouldUseSingular_whenResolve_givenOneCauseOmitted() {
+        Throwable givenThrowable = createCauseChain(3, 200);
+        givenThrowable.getCause().getCause().setStackTrace(new StackTraceElement[0]);
+
+        String actualStacktrace = resolve(givenThrowable, true).getString(ConfigProperty.STACK.getDefaultValue());
+
+        Assertions.assertThat(actualStacktrace).contains("\t[1 cause omitted]" + System.lineSeparator()
+                + "Caused by java.lang.IllegalStateException: cause 2");
+    }
+
+    @Test
+    void shouldCutOffTail_whenResolve_givenHeadAndTailTruncationDisabled() {
+        String actualStacktrace = resolve(createCauseChain(20, 20), false).getString(ConfigProperty.STACK.getDefaultValue());
+
+        Assertions.assertThat(actualStacktrace).hasSize(MAX_STRING_BYTE_COUNT).doesNotContain("omitted").doesNotContain("cause 19");
+    }
+
+    @Test
+    void shouldRenderEverything_whenResolve_givenStacktraceWithinBudget() {
+        String actualStacktrace = resolve(createCauseChain(2, 2), true).getString(ConfigProperty.STACK.getDefaultValue());
+
+        Assertions.assertThat(actualStacktrace).doesNotContain("omitted");
+        Assertions.assertThat(actualStacktrace.split(System.lineSeparator())).hasSize(6);
+    }
+
+    private Throwable createCauseChain(int causes, int frames) {
+        Throwable root = null;
+
+        for (int i = causes - 1; i >= 0; i--) {
+            Throwable throwable = new IllegalStateException("cause " + i, root);
+            StackTraceElement[] stackTrace = new StackTraceElement[frames];
+            for (int j = 0; j < frames; j++) {
+                stackTrace[j] = new StackTraceElement("com.example.Service" + i, "call", "Service" + i + ".java", j);
+            }
+            throwable.setStackTrace(stackTrace);
+            root = throwable;
+        }
+
+        return root;
+    }
+
+    private JSONObject resolve(Throwable throwable, boolean headAndTailTruncation) {
+        JsonTemplateFieldConfig fieldConfig = JsonTemplateFieldConfig.builder()
+                .filteredPackages(Collections.singletonList("org.framework."))
+                .headAndTailTruncation(headAndTailTruncation)
+                .build();
+        FilteredStacktraceStackTraceJsonResolver resolver = new FilteredStacktraceStackTraceJsonResolver(
+                new QueueingRecyclerFactory(LinkedList::new), MAX_STRING_BYTE_COUNT, fieldConfig);
+        JsonWriter jsonWriter = JsonWriter.newBuilder().setMaxStringLength(60000).setTruncatedStringSuffix("...").build();
+
+        resolver.resolve(throwable, jsonWriter);
+
+        return new JSONObject(jsonWriter.getStringBuilder().toString());
+    }
+}
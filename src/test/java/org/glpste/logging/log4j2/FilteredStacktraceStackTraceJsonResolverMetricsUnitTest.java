@@ -0,0 +1,157 @@
+package org.glpste.logging.log4j2;
+
+import org.apache.logging.log4j.core.LoggerContext;
+import org.apache.logging.log4j.core.config.AbstractConfiguration;
+import org.apache.logging.log4j.core.config.Configuration;
+import org.apache.logging.log4j.core.config.ConfigurationSource;
+import org.apache.logging.log4j.layout.template.json.util.JsonWriter;
+import org.apache.logging.log4j.layout.template.json.util.QueueingRecyclerFactory;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.LinkedList;
+
+class FilteredStacktraceStackTraceJsonResolverMetricsUnitTest {
+    @Test
+    void shouldExposeCounters_whenResolve_givenMetricsName() throws Exception {
+        Throwable givenThrowable = new IllegalStateException("outer", createExceptionWithStacktrace());
+        FilteredStacktraceStackTraceJsonResolver resolver = createResolver("countersTest", 60000);
+        JsonWriter jsonWriter = createJsonWriter();
+
+        resolver.resolve(givenThrowable, jsonWriter);
+        resolver.resolve(givenThrowable, jsonWriter);
+
+        int totalFrames = 2 * (givenThrowable.getStackTrace().length + givenThrowable.getCause().getStackTrace().length);
+        Assertions.assertThat(getAttribute("countersTest", "EventsResolved")).isEqualTo(2L);
+        Assertions.assertThat(getAttribute("countersTest", "CausesWalked")).isEqualTo(4L);
+        Assertions.assertThat(getAttribute("countersTest", "FramesSeen")).isEqualTo((long) totalFrames);
+        Assertions.assertThat((Long) getAttribute("countersTest", "FramesFiltered")).isPositive().isLessThan(totalFrames);
+        Assertions.assertThat(getAttribute("countersTest", "OutputChars")).isEqualTo((long) jsonWriter.getStringBuilder().length());
+        Assertions.assertThat(getAttribute("countersTest", "Truncations")).isEqualTo(0L);
+        Assertions.assertThat((Long) getAttribute("countersTest", "ResolveTimeNanos")).isPositive();
+        Assertions.assertThat((Double) getAttribute("countersTest", "VerdictCacheHitRatio")).isBetween(0.5, 1.0);
+        Assertions.assertThat((Double) getAttribute("countersTest", "RenderedStackTraceCacheHitRatio")).isNaN();
+    }
+
+    @Test
+    void shouldCountTruncation_whenResolve_givenStacktraceExceedingCapacity() throws Exception {
+        FilteredStacktraceStackTraceJsonResolver resolver = createResolver("truncationTest", 100);
+
+        resolver.resolve(createExceptionWithStacktrace(), createJsonWriter());
+
+        Assertions.assertThat(getAttribute("truncationTest", "Truncations")).isEqualTo(1L);
+    }
+
+    @Test
+    void shouldReplaceMBean_whenCreated_givenNameRegisteredByPreviousConfiguration() throws Exception {
+        LoggerContext givenLoggerContext = new LoggerContext("replacementTest");
+        createResolver("replacementTest", createConfiguration(givenLoggerContext)).resolve(createExceptionWithStacktrace(), createJsonWriter());
+        createResolver("replacementTest", createConfiguration(givenLoggerContext));
+
+        Assertions.assertThat(getMBeanAttribute(createObjectName("replacementTest", "replacementTest"), "EventsResolved")).isEqualTo(0L);
+        Assertions.assertThat(isRegistered(createObjectName("replacementTest", "replacementTest") + ",instance=2")).isFalse();
+        givenLoggerContext.stop();
+    }
+
+    @Test
+    void shouldRegisterInstance_whenCreated_givenNameUsedBySameConfiguration() throws Exception {
+        LoggerContext givenLoggerContext = new LoggerContext("instanceTest");
+        Configuration givenConfiguration = createConfiguration(givenLoggerContext);
+        FilteredStacktraceStackTraceJsonResolver firstResolver = createResolver("instanceTest", givenConfiguration);
+        FilteredStacktraceStackTraceJsonResolver secondResolver = createResolver("instanceTest", givenConfiguration);
+
+        firstResolver.resolve(createExceptionWithStacktrace(), createJsonWriter());
+
+        Assertions.assertThat(getMBeanAttribute(createObjectName("instanceTest", "instanceTest"), "EventsResolved")).isEqualTo(1L);
+        Assertions.assertThat(getMBeanAttribute(createObjectName("instanceTest", "instanceTest") + ",instance=2", "EventsResolved")).isEqualTo(0L);
+        Assertions.assertThat(secondResolver).isNotNull();
+        givenLoggerContext.stop();
+    }
+
+    @Test
+    void shouldUnregisterMBeans_whenLoggerContextStopped_givenResolversOfContext() throws Exception {
+        LoggerContext givenLoggerContext = new LoggerContext("shutdownTest");
+        Configuration givenConfiguration = createConfiguration(givenLoggerContext);
+        FilteredStacktraceStackTraceJsonResolver firstResolver = createResolver("shutdownTest", givenConfiguration);
+        FilteredStacktraceStackTraceJsonResolver secondResolver = createResolver("shutdownTest", givenConfiguration);
+        Assertions.assertThat(isRegistered(createObjectName("shutdownTest", "shutdownTest") + ",instance=2")).isTrue();
+
+        givenLoggerContext.stop();
+
+        Assertions.assertThat(isRegistered(createObjectName("shutdownTest", "shutdownTest"))).isFalse();
+        Assertions.assertThat(isRegistered(createObjectName("shutdownTest", "shutdownTest") + ",instance=2")).isFalse();
+        Assertions.assertThat(firstResolver).isNotSameAs(secondResolver);
+    }
+
+    @Test
+    void shouldNotRegisterMBean_whenCreated_givenInvalidExceptionPolicy() throws Exception {
+        JsonTemplateFieldConfig fieldConfig = JsonTemplateFieldConfig.builder()
+                .metricsName("invalidPolicyTest")
+                .exceptionPolicies(Collections.singletonMap("java.lang.IllegalStateException",
+                        new ExceptionPolicy(null, null, Collections.singletonList("regex:("), false)))
+                .build();
+
+        Assertions.assertThatThrownBy(() -> new FilteredStacktraceStackTraceJsonResolver(new QueueingRecyclerFactory(LinkedList::new),
+                60000, fieldConfig)).isInstanceOf(IllegalArgumentException.class);
+        Assertions.assertThat(isRegistered("org.glpste.logging.log4j2:type=FilteredStacktraceResolver,name="
+                + ObjectName.quote("invalidPolicyTest"))).isFalse();
+    }
+
+    private FilteredStacktraceStackTraceJsonResolver createResolver(String metricsName, int maxStringByteCount) {
+        return new FilteredStacktraceStackTraceJsonResolver(new QueueingRecyclerFactory(LinkedList::new), maxStringByteCount,
+                createFieldConfig(metricsName));
+    }
+
+    private FilteredStacktraceStackTraceJsonResolver createResolver(String metricsName, Configuration configuration) {
+        return new FilteredStacktraceStackTraceJsonResolver(new QueueingRecyclerFactory(LinkedList::new), 60000,
+                createFieldConfig(metricsName), configuration);
+    }
+
+    private JsonTemplateFieldConfig createFieldConfig(String metricsName) {
+        return JsonTemplateFieldConfig.builder()
+                .filteredPackages(Collections.singletonList("org.junit"))
+                .metricsName(metricsName)
+                .build();
+    }
+
+    private Configuration createConfiguration(LoggerContext loggerContext) {
+        return new AbstractConfiguration(loggerContext, ConfigurationSource.NULL_SOURCE) {
+        };
+    }
+
+    private JsonWriter createJsonWriter() {
+        return JsonWriter.newBuilder().setMaxStringLength(60000).setTruncatedStringSuffix("...").build();
+    }
+
+    private Object getAttribute(String metricsName, String attribute) throws Exception {
+        return getMBeanAttribute("org.glpste.logging.log4j2:type=FilteredStacktraceResolver,name=" + ObjectName.quote(metricsName),
+                attribute);
+    }
+
+    private Object getMBeanAttribute(String objectName, String attribute) throws Exception {
+        MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+
+        return mBeanServer.getAttribute(new ObjectName(objectName), attribute);
+    }
+
+    private boolean isRegistered(String objectName) throws Exception {
+        return ManagementFactory.getPlatformMBeanServer().isRegistered(new ObjectName(objectName));
+    }
+
+    private String createObjectName(String contextName, String metricsName) {
+        return "org.glpste.logging.log4j2:type=FilteredStacktraceResolver,context=" + ObjectName.quote(contextName)
+                + ",name=" + ObjectName.quote(metricsName);
+    }
+
+    private Exception createExceptionWithStacktrace() {
+        try {
+            throw new ArithmeticException("/ by zero");
+        } catch (Exception e) {
+            return e;
+        }
+    }
+}
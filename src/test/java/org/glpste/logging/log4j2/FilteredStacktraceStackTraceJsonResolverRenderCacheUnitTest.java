@@ -0,0 +1,88 @@
+package org.glpste.logging.log4j2;
+
+import org.apache.logging.log4j.layout.template.json.resolver.EventResolverContext;
+import org.apache.logging.log4j.layout.template.json.util.JsonWriter;
+import org.apache.logging.log4j.layout.template.json.util.QueueingRecyclerFactory;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Collections;
+import java.util.LinkedList;
+
+@ExtendWith(MockitoExtension.class)
+class FilteredStacktraceStackTraceJsonResolverRenderCacheUnitTest {
+    private FilteredStacktraceStackTraceJsonResolver resolver;
+
+    @Mock
+    private EventResolverContext mockedEventResolverContext;
+
+    @BeforeEach
+    void setUp() {
+        Mockito.when(mockedEventResolverContext.getRecyclerFactory()).thenReturn(new QueueingRecyclerFactory(LinkedList::new));
+        Mockito.when(mockedEventResolverContext.getMaxStringByteCount()).thenReturn(60000);
+
+        JsonTemplateFieldConfig fieldConfig = JsonTemplateFieldConfig.builder()
+                .filteredPackages(Collections.singletonList("org.junit"))
+                .renderedStackTraceCacheSize(10)
+                .build();
+
+        resolver = new FilteredStacktraceStackTraceJsonResolver(mockedEventResolverContext, fieldConfig);
+    }
+
+    @Test
+    void shouldRenderSameOutput_whenResolve_givenSameThrowableTwice() {
+        Throwable givenThrowable = wrappedThrowable("/ by zero");
+
+        String firstOutput = resolve(givenThrowable);
+        String secondOutput = resolve(givenThrowable);
+
+        Assertions.assertThat(secondOutput).isEqualTo(firstOutput);
+        Assertions.assertThat(resolver.getRenderedStackTraceCache().missCount()).isEqualTo(1);
+        Assertions.assertThat(resolver.getRenderedStackTraceCache().hitCount()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldReuseRenderedStackTrace_whenResolve_givenEqualThrowablesFromSameLocation() {
+        for (int i = 0; i < 3; i++) {
+            resolve(wrappedThrowable("/ by zero"));
+        }
+
+        Assertions.assertThat(resolver.getRenderedStackTraceCache().missCount()).isEqualTo(1);
+        Assertions.assertThat(resolver.getRenderedStackTraceCache().hitCount()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldNotReuseRenderedStackTrace_whenResolve_givenDifferentMessage() {
+        String firstOutput = resolve(wrappedThrowable("first"));
+        String secondOutput = resolve(wrappedThrowable("second"));
+
+        Assertions.assertThat(firstOutput).contains("first").doesNotContain("second");
+        Assertions.assertThat(secondOutput).contains("second").doesNotContain("first");
+        Assertions.assertThat(resolver.getRenderedStackTraceCache().missCount()).isEqualTo(2);
+    }
+
+    private String resolve(Throwable throwable) {
+        JsonWriter jsonWriter = JsonWriter.newBuilder().setMaxStringLength(60000).setTruncatedStringSuffix("...").build();
+
+        resolver.resolve(throwable, jsonWriter);
+
+        return jsonWriter.getStringBuilder().toString();
+    }
+
+    private Throwable wrappedThrowable(String message) {
+        return new RuntimeException(createExceptionWithStacktrace(message));
+    }
+
+    private Exception createExceptionWithStacktrace(String message) {
+        try {
+            throw new ArithmeticException(message);
+        } catch (Exception e) {
+            return e;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package org.glpste.logging.log4j2;
+
+import org.apache.logging.log4j.layout.template.json.util.JsonWriter;
+import org.apache.logging.log4j.layout.template.json.util.QueueingRecyclerFactory;
+import org.assertj.core.api.Assertions;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.LinkedList;
+
+class FilteredStacktraceStackTraceJsonResolverRepeatSuppressionUnitTest {
+    @Test
+    void shouldWriteFingerprintAndOccurrenceOnly_whenResolve_givenRepeatWithinWindow() {
+        FilteredStacktraceStackTraceJsonResolver resolver = createResolver(60000);
+
+        JSONObject firstOutput = resolve(resolver, createThrowable("order 1"));
+        JSONObject secondOutput = resolve(resolver, createThrowable("order 2"));
+
+        Assertions.assertThat(firstOutput.has(ConfigProperty.STACK.getDefaultValue())).isTrue();
+        Assertions.assertThat(firstOutput.getLong("occurrence")).isEqualTo(1);
+        Assertions.assertThat(secondOutput.has(ConfigProperty.STACK.getDefaultValue())).isFalse();
+        Assertions.assertThat(secondOutput.getString(ConfigProperty.MESSAGE.getDefaultValue())).isEqualTo("order 2");
+        Assertions.assertThat(secondOutput.getLong("occurrence")).isEqualTo(2);
+        Assertions.assertThat(secondOutput.getString("fingerprint")).isEqualTo(firstOutput.getString("fingerprint"));
+    }
+
+    @Test
+    void shouldRenderFully_whenResolve_givenDifferentException() {
+        FilteredStacktraceStackTraceJsonResolver resolver = createResolver(60000);
+
+        resolve(resolver, createThrowable("order 1"));
+        JSONObject actualOutput = resolve(resolver, new IllegalArgumentException("other"));
+
+        Assertions.assertThat(actualOutput.has(ConfigProperty.STACK.getDefaultValue())).isTrue();
+        Assertions.assertThat(actualOutput.getLong("occurrence")).isEqualTo(1);
+    }
+
+    @Test
+    void shouldWriteSameFingerprintAsRendering_whenResolve_givenRepeatSuppressionEnabled() {
+        Throwable givenThrowable = createThrowable("order 1");
+        JsonTemplateFieldConfig fieldConfig = JsonTemplateFieldConfig.builder()
+                .filteredPackages(Collections.singletonList("org.junit"))
+                .fingerprint(true)
+                .build();
+        FilteredStacktraceStackTraceJsonResolver fingerprintResolver = new FilteredStacktraceStackTraceJsonResolver(
+                new QueueingRecyclerFactory(LinkedList::new), 60000, fieldConfig);
+
+        String expectedFingerprint = resolve(fingerprintResolver, givenThrowable).getString("fingerprint");
+
+        Assertions.assertThat(resolve(createResolver(60000), givenThrowable).getString("fingerprint")).isEqualTo(expectedFingerprint);
+    }
+
+    @Test
+    void shouldWriteSameFingerprintAsFingerprintMode_whenResolve_givenElidedAndLimitedFrames() {
+        Throwable givenThrowable = new IllegalStateException("outer", createThrowable("inner"));
+        FilteredStacktraceStackTraceJsonResolver fingerprintResolver = new FilteredStacktraceStackTraceJsonResolver(
+                new QueueingRecyclerFactory(LinkedList::new), 60000, createLimitingConfig().fingerprint(true).build());
+        FilteredStacktraceStackTraceJsonResolver repeatResolver = new FilteredStacktraceStackTraceJsonResolver(
+                new QueueingRecyclerFactory(LinkedList::new), 60000, createLimitingConfig().repeatSuppressionWindowMillis(60000).build());
+
+        JSONObject fingerprintOutput = resolve(fingerprintResolver, givenThrowable);
+        JSONObject repeatOutput = resolve(repeatResolver, givenThrowable);
+
+        Assertions.assertThat(fingerprintOutput.getString(ConfigProperty.STACK.getDefaultValue())).contains("lines omitted]");
+        Assertions.assertThat(repeatOutput.getString("fingerprint")).isEqualTo(fingerprintOutput.getString("fingerprint"));
+    }
+
+    private JsonTemplateFieldConfig.Builder createLimitingConfig() {
+        return JsonTemplateFieldConfig.builder()
+                .filteredPackages(Collections.singletonList("org.junit"))
+                .elideCommonFrames(true)
+                .maxRenderedFrames(2);
+    }
+
+    private FilteredStacktraceStackTraceJsonResolver createResolver(int windowMillis) {
+        JsonTemplateFieldConfig fieldConfig = JsonTemplateFieldConfig.builder()
+                .filteredPackages(Collections.singletonList("org.junit"))
+                .repeatSuppressionWindowMillis(windowMillis)
+                .build();
+
+        return new FilteredStacktraceStackTraceJsonResolver(new QueueingRecyclerFactory(LinkedList::new), 60000, fieldConfig);
+    }
+
+    private JSONObject resolve(FilteredStacktraceStackTraceJsonResolver resolver, Throwable throwable) {
+        JsonWriter jsonWriter = JsonWriter.newBuilder().setMaxStringLength(60000).setTruncatedStringSuffix("...").build();
+
+        resolver.resolve(throwable, jsonWriter);
+
+        return new JSONObject(jsonWriter.getStringBuilder().toString());
+    }
+
+    private Exception createThrowable(String message) {
+        // same location for every call
+        return new IllegalStateException(message);
+    }
+}
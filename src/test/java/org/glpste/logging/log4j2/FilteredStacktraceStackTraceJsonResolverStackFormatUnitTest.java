@@ -0,0 +1,81 @@
+package org.glpste.logging.log4j2;
+
+import org.apache.logging.log4j.layout.template.json.util.JsonWriter;
+import org.apache.logging.log4j.layout.template.json.util.QueueingRecyclerFactory;
+import org.assertj.core.api.Assertions;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.LinkedList;
+
+class FilteredStacktraceStackTraceJsonResolverStackFormatUnitTest {
+    @Test
+    void shouldWriteCausesWithFrameStrings_whenResolve_givenArrayFormat() {
+        JSONObject actualOutput = resolve(createThrowable(), "array");
+        JSONArray actualCauses = actualOutput.getJSONArray(ConfigProperty.STACK.getDefaultValue());
+
+        Assertions.assertThat(actualCauses.length()).isEqualTo(2);
+
+        JSONObject outerCause = actualCauses.getJSONObject(0);
+        Assertions.assertThat(outerCause.getString(ConfigProperty.NAME.getDefaultValue())).isEqualTo("java.lang.IllegalStateException");
+        Assertions.assertThat(outerCause.getString(ConfigProperty.MESSAGE.getDefaultValue())).isEqualTo("outer \"quoted\"");
+        Assertions.assertThat(outerCause.getInt(ConfigProperty.COUNT.getDefaultValue())).isEqualTo(1);
+        Assertions.assertThat(outerCause.getJSONArray("frames").toList()).containsExactly("com.example.Service.call(Service.java:5)");
+
+        JSONObject rootCause = actualCauses.getJSONObject(1);
+        Assertions.assertThat(rootCause.getString(ConfigProperty.NAME.getDefaultValue())).isEqualTo("java.lang.ArithmeticException");
+        Assertions.assertThat(rootCause.getJSONArray("frames").toList()).containsExactly("com.example.Math.divide(Unknown Source)");
+
+        Assertions.assertThat(actualOutput.getInt(ConfigProperty.COUNT.getDefaultValue())).isEqualTo(1);
+    }
+
+    @Test
+    void shouldWriteFrameObjects_whenResolve_givenObjectsFormat() {
+        JSONArray actualCauses = resolve(createThrowable(), "objects").getJSONArray(ConfigProperty.STACK.getDefaultValue());
+
+        JSONObject actualFrame = actualCauses.getJSONObject(0).getJSONArray("frames").getJSONObject(0);
+        Assertions.assertThat(actualFrame.getString("class")).isEqualTo("com.example.Service");
+        Assertions.assertThat(actualFrame.getString("method")).isEqualTo("call");
+        Assertions.assertThat(actualFrame.getString("file")).isEqualTo("Service.java");
+        Assertions.assertThat(actualFrame.getInt("line")).isEqualTo(5);
+
+        JSONObject actualFrameWithoutFile = actualCauses.getJSONObject(1).getJSONArray("frames").getJSONObject(0);
+        Assertions.assertThat(actualFrameWithoutFile.isNull("file")).isTrue();
+    }
+
+    @Test
+    void shouldThrowException_whenCreate_givenUnknownFormat() {
+        JsonTemplateFieldConfig fieldConfig = JsonTemplateFieldConfig.builder().stackFormat("xml").build();
+        QueueingRecyclerFactory recyclerFactory = new QueueingRecyclerFactory(LinkedList::new);
+
+        Assertions.assertThatThrownBy(() -> new FilteredStacktraceStackTraceJsonResolver(recyclerFactory, 60000, fieldConfig))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private Throwable createThrowable() {
+        Throwable cause = new ArithmeticException("inner");
+        cause.setStackTrace(new StackTraceElement[]{new StackTraceElement("com.example.Math", "divide", null, -1)});
+        Throwable throwable = new IllegalStateException("outer \"quoted\"", cause);
+        throwable.setStackTrace(new StackTraceElement[]{
+                new StackTraceElement("com.example.Service", "call", "Service.java", 5),
+                new StackTraceElement("org.framework.Proxy", "invoke", "Proxy.java", 1)});
+
+        return throwable;
+    }
+
+    private JSONObject resolve(Throwable throwable, String stackFormat) {
+        JsonTemplateFieldConfig fieldConfig = JsonTemplateFieldConfig.builder()
+                .filteredPackages(Collections.singletonList("org.framework."))
+                .stackFormat(stackFormat)
+                .build();
+        FilteredStacktraceStackTraceJsonResolver resolver = new FilteredStacktraceStackTraceJsonResolver(
+                new QueueingRecyclerFactory(LinkedList::new), 60000, fieldConfig);
+        JsonWriter jsonWriter = JsonWriter.newBuilder().setMaxStringLength(60000).setTruncatedStringSuffix("...").build();
+
+        resolver.resolve(throwable, jsonWriter);
+
+        return new JSONObject(jsonWriter.getStringBuilder().toString());
+    }
+}
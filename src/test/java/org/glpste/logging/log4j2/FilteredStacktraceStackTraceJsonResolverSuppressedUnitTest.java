@@ -0,0 +1,168 @@
+package org.glpste.logging.log4j2;
+
+import org.apache.logging.log4j.layout.template.json.resolver.EventResolverContext;
+import org.apache.logging.log4j.layout.template.json.util.JsonWriter;
+import org.apache.logging.log4j.layout.template.json.util.QueueingRecyclerFactory;
+import org.assertj.core.api.Assertions;
+import org.json.JSONObject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@ExtendWith(MockitoExtension.class)
+class FilteredStacktraceStackTraceJsonResolverSuppressedUnitTest {
+    @Mock
+    private EventResolverContext mockedEventResolverContext;
+
+    @BeforeEach
+    void setUp() {
+        Mockito.when(mockedEventResolverContext.getRecyclerFactory()).thenReturn(new QueueingRecyclerFactory(LinkedList::new));
+        Mockito.when(mockedEventResolverContext.getMaxStringByteCount()).thenReturn(60000);
+    }
+
+    @Test
+    void shouldRenderSuppressedExceptions_whenResolve_givenSuppressedExceptionsEnabled() {
+        Throwable givenThrowable = createThrowable("main", "Main");
+        Throwable suppressed = createThrowable("close failed", "Resource");
+        suppressed.initCause(createThrowable("io", "Stream"));
+        givenThrowable.addSuppressed(suppressed);
+        givenThrowable.initCause(createThrowable("cause", "Cause"));
+
+        String actualStacktrace = resolve(givenThrowable, true, 0).getString(ConfigProperty.STACK.getDefaultValue());
+
+        Assertions.assertThat(actualStacktrace.split(System.lineSeparator())).containsExactly(
+                "java.lang.IllegalStateException: main",
+                "\tat com.example.Main.call(Main.java:1)",
+                "\tSuppressed: java.lang.IllegalStateException: close failed",
+                "\t\tat com.example.Resource.call(Resource.java:1)",
+                "\tCaused by java.lang.IllegalStateException: io",
+                "\t\tat com.example.Stream.call(Stream.java:1)",
+                "Caused by java.lang.IllegalStateException: cause",
+                "\tat com.example.Cause.call(Cause.java:1)");
+    }
+
+    @Test
+    void shouldIgnoreSuppressedExceptions_whenResolve_givenSuppressedExceptionsDisabled() {
+        Throwable givenThrowable = createThrowable("main", "Main");
+        givenThrowable.addSuppressed(createThrowable("close failed", "Resource"));
+
+        String actualStacktrace = resolve(givenThrowable, false, 0).getString(ConfigProperty.STACK.getDefaultValue());
+
+        Assertions.assertThat(actualStacktrace).doesNotContain("Suppressed");
+    }
+
+    @Test
+    void shouldOmitFramesAndSuppressedExceptions_whenResolve_givenFrameBudgetSpent() {
+        Throwable givenThrowable = createThrowable("main", "Main");
+        for (int i = 0; i < 100; i++) {
+            givenThrowable.addSuppressed(createThrowable("suppressed " + i, "Resource"));
+        }
+
+        String actualStacktrace = resolve(givenThrowable, true, 3).getString(ConfigProperty.STACK.getDefaultValue());
+
+        Assertions.assertThat(actualStacktrace.split(System.lineSeparator())).containsExactly(
+                "java.lang.IllegalStateException: main",
+                "\tat com.example.Main.call(Main.java:1)",
+                "\tSuppressed: java.lang.IllegalStateException: suppressed 0",
+                "\t\tat com.example.Resource.call(Resource.java:1)",
+                "\tSuppressed: java.lang.IllegalStateException: suppressed 1",
+                "\t\tat com.example.Resource.call(Resource.java:1)",
+                "\t[98 suppressed exceptions omitted]");
+    }
+
+    @Test
+    void shouldStopAtDefaultFrameBudget_whenResolve_givenManySuppressedExceptionsWithoutMaxRenderedFrames() {
+        AtomicInteger stackTraceReads = new AtomicInteger();
+        Throwable givenThrowable = createThrowable("main", "Main");
+        for (int i = 0; i < 500; i++) {
+            givenThrowable.addSuppressed(new CountingException(stackTraceReads, 10));
+        }
+
+        String actualStacktrace = resolve(givenThrowable, true, 0).getString(ConfigProperty.STACK.getDefaultValue());
+
+        Assertions.assertThat(actualStacktrace).endsWith("suppressed exceptions omitted]");
+        Assertions.assertThat(stackTraceReads.get()).isLessThanOrEqualTo(FilteredStacktraceStackTraceJsonResolver.SUPPRESSED_FRAME_BUDGET / 10 + 1);
+    }
+
+    @Test
+    void shouldStopWalking_whenResolve_givenOutputTruncated() {
+        AtomicInteger stackTraceReads = new AtomicInteger();
+        Throwable givenThrowable = createThrowable("main", "Main");
+        for (int i = 0; i < 500; i++) {
+            givenThrowable.addSuppressed(new CountingException(stackTraceReads, 100));
+        }
+
+        String actualStacktrace = resolve(givenThrowable, true, 1000000).getString(ConfigProperty.STACK.getDefaultValue());
+
+        // 60000 chars hold about 1500 stacktrace elements
+        Assertions.assertThat(actualStacktrace).hasSize(60000);
+        Assertions.assertThat(stackTraceReads.get()).isLessThan(20);
+    }
+
+    @Test
+    void shouldWriteCircularReference_whenResolve_givenSuppressedExceptionContainingItsParent() {
+        Throwable givenThrowable = createThrowable("main", "Main");
+        Throwable suppressed = createThrowable("close failed", "Resource");
+        givenThrowable.addSuppressed(suppressed);
+        suppressed.addSuppressed(givenThrowable);
+
+        String actualStacktrace = resolve(givenThrowable, true, 0).getString(ConfigProperty.STACK.getDefaultValue());
+
+        Assertions.assertThat(actualStacktrace.split(System.lineSeparator())).containsExactly(
+                "java.lang.IllegalStateException: main",
+                "\tat com.example.Main.call(Main.java:1)",
+                "\tSuppressed: java.lang.IllegalStateException: close failed",
+                "\t\tat com.example.Resource.call(Resource.java:1)",
+                "\t\t[circular reference: java.lang.IllegalStateException: main]");
+    }
+
+    private Throwable createThrowable(String message, String className) {
+        Throwable throwable = new IllegalStateException(message);
+        throwable.setStackTrace(new StackTraceElement[]{new StackTraceElement("com.example." + className, "call", className + ".java", 1)});
+
+        return throwable;
+    }
+
+    private JSONObject resolve(Throwable throwable, boolean suppressedExceptions, int maxRenderedFrames) {
+        JsonTemplateFieldConfig fieldConfig = JsonTemplateFieldConfig.builder()
+                .filteredPackages(Collections.singletonList("org.framework."))
+                .suppressedExceptions(suppressedExceptions)
+                .maxRenderedFrames(maxRenderedFrames)
+                .build();
+        FilteredStacktraceStackTraceJsonResolver resolver = new FilteredStacktraceStackTraceJsonResolver(mockedEventResolverContext, fieldConfig);
+        JsonWriter jsonWriter = JsonWriter.newBuilder().setMaxStringLength(60000).setTruncatedStringSuffix("...").build();
+
+        resolver.resolve(throwable, jsonWriter);
+
+        return new JSONObject(jsonWriter.getStringBuilder().toString());
+    }
+
+    private static final class CountingException extends IllegalStateException {
+        private final transient AtomicInteger stackTraceReads;
+
+        private CountingException(AtomicInteger stackTraceReads, int frames) {
+            super("suppressed");
+            this.stackTraceReads = stackTraceReads;
+
+            StackTraceElement[] stackTrace = new StackTraceElement[frames];
+            for (int i = 0; i < frames; i++) {
+                stackTrace[i] = new StackTraceElement("com.example.R", "call", "R.java", i);
+            }
+            setStackTrace(stackTrace);
+        }
+
+        @Override
+        public StackTraceElement[] getStackTrace() {
+            stackTraceReads.incrementAndGet();
+
+            return super.getStackTrace();
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package org.glpste.logging.log4j2;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class FingerprintUnitTest {
+    @Test
+    void shouldMatchFnv1aReferenceValues_whenHash_givenAsciiText() {
+        Assertions.assertThat(Fingerprint.hash(Fingerprint.INITIAL_VALUE, "")).isEqualTo(0xcbf29ce484222325L);
+        Assertions.assertThat(Fingerprint.hash(Fingerprint.INITIAL_VALUE, "a")).isEqualTo(0xaf63dc4c8601ec8cL);
+        Assertions.assertThat(Fingerprint.hash(Fingerprint.INITIAL_VALUE, "foobar")).isEqualTo(0x85944171f73967e8L);
+    }
+
+    @Test
+    void shouldWriteSixteenDigits_whenAppendHex_givenSmallHash() {
+        StringBuilder actualHex = new StringBuilder();
+
+        Fingerprint.appendHex(0xabcL, actualHex);
+
+        Assertions.assertThat(actualHex).hasToString("0000000000000abc");
+    }
+}
@@ -0,0 +1,50 @@
+package org.glpste.logging.log4j2;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+class FrameMatcherUnitTest {
+    @Test
+    void shouldMatchMethods_whenMatches_givenMethodRules() {
+        FrameMatcher matcher = new FrameMatcher(Arrays.asList("org.apache.catalina.core.ApplicationFilterChain#doFilter", "#invoke0"));
+
+        Assertions.assertThat(matcher.matches(frame("org.apache.catalina.core.ApplicationFilterChain", "doFilter", "ApplicationFilterChain.java"))).isTrue();
+        Assertions.assertThat(matcher.matches(frame("org.apache.catalina.core.ApplicationFilterChain", "internalDoFilter", "ApplicationFilterChain.java"))).isFalse();
+        Assertions.assertThat(matcher.matches(frame("com.example.Filter", "doFilter", "Filter.java"))).isFalse();
+        Assertions.assertThat(matcher.matches(frame("jdk.internal.reflect.NativeMethodAccessorImpl", "invoke0", null))).isTrue();
+    }
+
+    @Test
+    void shouldMatchFileAndFrameTypes_whenMatches_givenFrameRules() {
+        FrameMatcher matcher = new FrameMatcher(Arrays.asList("file:Proxy.java", "frame:native", "frame:synthetic"));
+
+        Assertions.assertThat(matcher.matches(frame("com.example.Proxy", "call", "Proxy.java"))).isTrue();
+        Assertions.assertThat(matcher.matches(new StackTraceElement("java.lang.Thread", "sleep", null, -2))).isTrue();
+        Assertions.assertThat(matcher.matches(frame("com.example.Service", "lambda$call$0", "Service.java"))).isTrue();
+        Assertions.assertThat(matcher.matches(frame("com.example.Service$$Lambda$14/0x0000000800c0b000", "apply", null))).isTrue();
+        Assertions.assertThat(matcher.matches(frame("com.example.Service", "call", "Service.java"))).isFalse();
+    }
+
+    @Test
+    void shouldRecognizeFrameRules_whenIsFrameRule_givenListEntries() {
+        Assertions.assertThat(FrameMatcher.isFrameRule("com.example.Filter#doFilter")).isTrue();
+        Assertions.assertThat(FrameMatcher.isFrameRule("#invoke0")).isTrue();
+        Assertions.assertThat(FrameMatcher.isFrameRule("file:Proxy.java")).isTrue();
+        Assertions.assertThat(FrameMatcher.isFrameRule("frame:native")).isTrue();
+        Assertions.assertThat(FrameMatcher.isFrameRule("org.junit.")).isFalse();
+        Assertions.assertThat(FrameMatcher.isFrameRule("regex:.*#.*")).isFalse();
+    }
+
+    @Test
+    void shouldThrowException_whenCreated_givenUnknownFrameRule() {
+        Assertions.assertThatThrownBy(() -> new FrameMatcher(Collections.singletonList("frame:unknown")))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private StackTraceElement frame(String className, String methodName, String fileName) {
+        return new StackTraceElement(className, methodName, fileName, 42);
+    }
+}
@@ -0,0 +1,91 @@
+package org.glpste.logging.log4j2;
+
+import org.apache.logging.log4j.layout.template.json.util.JsonWriter;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class JsonStringSinkUnitTest {
+    private static final String TEXT_TO_ESCAPE = "java.lang.RuntimeException: \"quoted\" \\ back\r\n\tat x\u0001\u001f ä😀";
+
+    @Test
+    void shouldEscapeLikeJsonWriter_whenAppend_givenCharsToEscape() {
+        Assertions.assertThat(writeWithSink(TEXT_TO_ESCAPE, 1000, 1000)).isEqualTo(writeWithJsonWriter(TEXT_TO_ESCAPE, 1000));
+    }
+
+    @Test
+    void shouldTruncateWithSuffix_whenClose_givenTextLongerThanMaxStringLength() {
+        String givenText = "0123456789";
+
+        Assertions.assertThat(writeWithSink(givenText, 1000, 4)).isEqualTo("\"0123...\"");
+        Assertions.assertThat(writeWithSink(givenText, 1000, 4)).isEqualTo(writeWithJsonWriter(givenText, 4));
+    }
+
+    @Test
+    void shouldTruncateWithoutSuffix_whenClose_givenTextLongerThanCapacity() {
+        Assertions.assertThat(writeWithSink("0123456789", 4, 1000)).isEqualTo("\"0123\"");
+    }
+
+    @Test
+    void shouldNotSplitSurrogatePair_whenClose_givenTruncationWithinSurrogatePair() {
+        String givenText = "ab😀";
+
+        Assertions.assertThat(writeWithSink(givenText, 1000, 3)).isEqualTo(writeWithJsonWriter(givenText, 3));
+    }
+
+    @Test
+    void shouldWriteDecimalNumber_whenAppend_givenNumbers() {
+        JsonWriter jsonWriter = JsonWriter.newBuilder().setMaxStringLength(1000).setTruncatedStringSuffix("...").build();
+        JsonStringSink sink = new JsonStringSink();
+
+        sink.open(jsonWriter, 1000);
+        sink.append(0).append(' ').append(42).append(' ').append(-1234567890123L);
+        sink.close();
+
+        Assertions.assertThat(jsonWriter.getStringBuilder().toString()).isEqualTo("\"0 42 -1234567890123\"");
+    }
+
+    @Test
+    void shouldWriteNullAsText_whenAppend_givenNull() {
+        Assertions.assertThat(writeWithSink(null, 1000, 1000)).isEqualTo("\"null\"");
+    }
+
+    @Test
+    void shouldAppendEscapedTextOnlyIfItFits_whenTryAppend_givenTextCapturedBefore() {
+        JsonWriter jsonWriter = JsonWriter.newBuilder().setMaxStringLength(1000).setTruncatedStringSuffix("...").build();
+        JsonStringSink sink = new JsonStringSink();
+
+        sink.open(jsonWriter, 1000);
+        int bufferLength = sink.bufferLength();
+        int length = sink.length();
+        sink.append("a\"b");
+        JsonStringSink.EscapedText escapedText = sink.escapedSince(bufferLength, length);
+        sink.close();
+
+        jsonWriter.getStringBuilder().setLength(0);
+        sink.open(jsonWriter, 5);
+        Assertions.assertThat(sink.tryAppend(escapedText)).isTrue();
+        Assertions.assertThat(sink.tryAppend(escapedText)).isFalse();
+        sink.close();
+
+        Assertions.assertThat(jsonWriter.getStringBuilder().toString()).isEqualTo("\"a\\\"b\"");
+    }
+
+    private String writeWithSink(String text, int capacity, int maxStringLength) {
+        JsonWriter jsonWriter = JsonWriter.newBuilder().setMaxStringLength(maxStringLength).setTruncatedStringSuffix("...").build();
+        JsonStringSink sink = new JsonStringSink();
+
+        sink.open(jsonWriter, capacity);
+        sink.append(text);
+        sink.close();
+
+        return jsonWriter.getStringBuilder().toString();
+    }
+
+    private String writeWithJsonWriter(String text, int maxStringLength) {
+        JsonWriter jsonWriter = JsonWriter.newBuilder().setMaxStringLength(maxStringLength).setTruncatedStringSuffix("...").build();
+
+        jsonWriter.writeString(text);
+
+        return jsonWriter.getStringBuilder().toString();
+    }
+}
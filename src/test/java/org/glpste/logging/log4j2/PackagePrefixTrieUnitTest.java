@@ -0,0 +1,73 @@
+package org.glpste.logging.log4j2;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+class PackagePrefixTrieUnitTest {
+    @Test
+    void shouldMatch_whenMatchesPrefixOf_givenClassInConfiguredPackage() {
+        PackagePrefixTrie trie = new PackagePrefixTrie(Arrays.asList("org.junit.", "java.lang.reflect."));
+
+        Assertions.assertThat(trie.matchesPrefixOf("org.junit.jupiter.api.Test")).isTrue();
+        Assertions.assertThat(trie.matchesPrefixOf("java.lang.reflect.Method")).isTrue();
+    }
+
+    @Test
+    void shouldNotMatch_whenMatchesPrefixOf_givenClassOutsideConfiguredPackages() {
+        PackagePrefixTrie trie = new PackagePrefixTrie(Arrays.asList("org.junit.", "java.lang.reflect."));
+
+        Assertions.assertThat(trie.matchesPrefixOf("org.glpste.logging.log4j2.PackagePrefixTrie")).isFalse();
+        Assertions.assertThat(trie.matchesPrefixOf("java.lang.Thread")).isFalse();
+        Assertions.assertThat(trie.matchesPrefixOf("org.junit")).isFalse();
+    }
+
+    @Test
+    void shouldBehaveLikeStartsWith_whenMatchesPrefixOf_givenPrefixWithoutTrailingDot() {
+        PackagePrefixTrie trie = new PackagePrefixTrie(Collections.singletonList("org.glpste.logging.log4j2"));
+
+        Assertions.assertThat(trie.matchesPrefixOf("org.glpste.logging.log4j2")).isTrue();
+        Assertions.assertThat(trie.matchesPrefixOf("org.glpste.logging.log4j2x.Other")).isTrue();
+    }
+
+    @Test
+    void shouldMatchShortestPrefix_whenMatchesPrefixOf_givenNestedPrefixes() {
+        PackagePrefixTrie trie = new PackagePrefixTrie(Arrays.asList("org.springframework.web.", "org.springframework."));
+
+        Assertions.assertThat(trie.matchesPrefixOf("org.springframework.beans.BeanUtils")).isTrue();
+    }
+
+    @Test
+    void shouldMatchEverything_whenMatchesPrefixOf_givenEmptyPrefix() {
+        PackagePrefixTrie trie = new PackagePrefixTrie(Collections.singletonList(""));
+
+        Assertions.assertThat(trie.matchesPrefixOf("any.Class")).isTrue();
+        Assertions.assertThat(trie.isEmpty()).isFalse();
+    }
+
+    @Test
+    void shouldBeEmpty_whenIsEmpty_givenNoPrefixes() {
+        PackagePrefixTrie trie = new PackagePrefixTrie(new ArrayList<>());
+
+        Assertions.assertThat(trie.isEmpty()).isTrue();
+        Assertions.assertThat(trie.matchesPrefixOf("any.Class")).isFalse();
+    }
+
+    @Test
+    void shouldMatchAllPrefixes_whenMatchesPrefixOf_givenManyPrefixes() {
+        List<String> prefixes = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            prefixes.add("com.example.module" + i + ".");
+        }
+        PackagePrefixTrie trie = new PackagePrefixTrie(prefixes);
+
+        for (int i = 0; i < 200; i++) {
+            Assertions.assertThat(trie.matchesPrefixOf("com.example.module" + i + ".Service")).isTrue();
+        }
+        Assertions.assertThat(trie.matchesPrefixOf("com.example.module200.Service")).isFalse();
+    }
+}
@@ -0,0 +1,67 @@
+package org.glpste.logging.log4j2;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+class RepeatTrackerUnitTest {
+    private final AtomicLong clock = new AtomicLong(1000);
+
+    @Test
+    void shouldCountOccurrences_whenRecordOccurrence_givenRepeatsWithinWindow() {
+        RepeatTracker tracker = new RepeatTracker(64, 100, clock::get);
+
+        Assertions.assertThat(tracker.recordOccurrence(42)).isEqualTo(1);
+        clock.addAndGet(50);
+        Assertions.assertThat(tracker.recordOccurrence(42)).isEqualTo(2);
+        Assertions.assertThat(tracker.recordOccurrence(42)).isEqualTo(3);
+    }
+
+    @Test
+    void shouldStartNewWindow_whenRecordOccurrence_givenWindowExpired() {
+        RepeatTracker tracker = new RepeatTracker(64, 100, clock::get);
+
+        tracker.recordOccurrence(42);
+        tracker.recordOccurrence(42);
+        clock.addAndGet(100);
+
+        Assertions.assertThat(tracker.recordOccurrence(42)).isEqualTo(1);
+    }
+
+    @Test
+    void shouldTrackFingerprintsSeparately_whenRecordOccurrence_givenDifferentFingerprints() {
+        RepeatTracker tracker = new RepeatTracker(1024, 100, clock::get);
+
+        tracker.recordOccurrence(0x1111111111111111L);
+
+        Assertions.assertThat(tracker.recordOccurrence(0x2222222222222222L)).isEqualTo(1);
+        Assertions.assertThat(tracker.recordOccurrence(0x1111111111111111L)).isEqualTo(2);
+    }
+
+    @Test
+    void shouldStartNewWindow_whenRecordOccurrence_givenSlotTakenOverByOtherFingerprint() {
+        // a single slot per stripe
+        RepeatTracker tracker = new RepeatTracker(1, 100, clock::get);
+
+        tracker.recordOccurrence(1);
+        tracker.recordOccurrence(findFingerprintInSameStripe(1));
+
+        Assertions.assertThat(tracker.recordOccurrence(1)).isEqualTo(1);
+    }
+
+    @Test
+    void shouldThrowException_whenCreate_givenNonPositiveSize() {
+        Assertions.assertThatThrownBy(() -> new RepeatTracker(0, 100)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private long findFingerprintInSameStripe(long fingerprint) {
+        long candidate = fingerprint + 1;
+
+        while ((candidate * 0x9E3779B97F4A7C15L) >>> 60 != (fingerprint * 0x9E3779B97F4A7C15L) >>> 60) {
+            candidate++;
+        }
+
+        return candidate;
+    }
+}
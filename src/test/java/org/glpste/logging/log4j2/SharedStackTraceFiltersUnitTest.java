@@ -0,0 +1,52 @@
+package org.glpste.logging.log4j2;
+
+import org.apache.logging.log4j.layout.template.json.util.QueueingRecyclerFactory;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+
+class SharedStackTraceFiltersUnitTest {
+    @Test
+    void shouldReturnSameFilter_whenGet_givenEqualConfiguration() {
+        StackTraceFilter filter = SharedStackTraceFilters.get(Collections.emptyList(), Arrays.asList("org.junit.", "sun.reflect."), 16);
+
+        Assertions.assertThat(SharedStackTraceFilters.get(new ArrayList<>(), new ArrayList<>(Arrays.asList("org.junit.", "sun.reflect.")), 16))
+                .isSameAs(filter);
+    }
+
+    @Test
+    void shouldReturnDifferentFilters_whenGet_givenDifferentConfiguration() {
+        StackTraceFilter filter = SharedStackTraceFilters.get(Collections.emptyList(), Collections.singletonList("org.junit."), 16);
+
+        Assertions.assertThat(SharedStackTraceFilters.get(Collections.emptyList(), Collections.singletonList("org.junit."), 32)).isNotSameAs(filter);
+        Assertions.assertThat(SharedStackTraceFilters.get(Collections.singletonList("org.junit."), Collections.emptyList(), 16)).isNotSameAs(filter);
+    }
+
+    @Test
+    void shouldNotBeAffected_whenGet_givenConfiguredListChangedAfterwards() {
+        List<String> filteredPackages = new ArrayList<>(Collections.singletonList("org.mockito."));
+        StackTraceFilter filter = SharedStackTraceFilters.get(Collections.emptyList(), filteredPackages, 16);
+
+        filteredPackages.add("org.assertj.");
+
+        Assertions.assertThat(filter.isFiltered("org.assertj.core.api.Assertions")).isFalse();
+        Assertions.assertThat(SharedStackTraceFilters.get(Collections.emptyList(), filteredPackages, 16)).isNotSameAs(filter);
+    }
+
+    @Test
+    void shouldShareVerdictCache_whenCreated_givenResolversWithEqualConfiguration() {
+        JsonTemplateFieldConfig fieldConfig = JsonTemplateFieldConfig.builder()
+                .filteredPackages(Collections.singletonList("org.apache.catalina."))
+                .build();
+
+        FilteredStacktraceStackTraceJsonResolver firstResolver = new FilteredStacktraceStackTraceJsonResolver(new QueueingRecyclerFactory(LinkedList::new), 60000, fieldConfig);
+        FilteredStacktraceStackTraceJsonResolver secondResolver = new FilteredStacktraceStackTraceJsonResolver(new QueueingRecyclerFactory(LinkedList::new), 60000, fieldConfig);
+
+        Assertions.assertThat(firstResolver.getStackTraceFilter()).isSameAs(secondResolver.getStackTraceFilter());
+    }
+}
@@ -0,0 +1,112 @@
+package org.glpste.logging.log4j2;
+
+import org.apache.logging.log4j.layout.template.json.util.JsonWriter;
+import org.apache.logging.log4j.layout.template.json.util.QueueingRecyclerFactory;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+class StackTraceFilterRegistryUnitTest {
+    @Test
+    void shouldApplyNewPackages_whenUpdate_givenRegisteredResolver() {
+        Throwable givenThrowable = createExceptionWithStacktrace();
+        FilteredStacktraceStackTraceJsonResolver resolver = createResolver("updateTest", 0);
+        String outputBeforeUpdate = resolve(resolver, givenThrowable);
+
+        int updatedResolvers = StackTraceFilterRegistry.update("updateTest", Collections.emptyList(), Collections.singletonList("org.junit"));
+
+        Assertions.assertThat(updatedResolvers).isEqualTo(1);
+        Assertions.assertThat(outputBeforeUpdate).contains("at org.junit");
+        Assertions.assertThat(resolve(resolver, givenThrowable))
+                .doesNotContain("at org.junit")
+                .isEqualTo(resolve(createResolver("", 0, "org.junit"), givenThrowable));
+    }
+
+    @Test
+    void shouldNotReuseRenderedStackTrace_whenResolve_givenUpdatedPackages() {
+        Throwable givenThrowable = createExceptionWithStacktrace();
+        FilteredStacktraceStackTraceJsonResolver resolver = createResolver("renderCacheTest", 10);
+        resolve(resolver, givenThrowable);
+
+        StackTraceFilterRegistry.update("renderCacheTest", Collections.emptyList(), Collections.singletonList("org.junit"));
+
+        Assertions.assertThat(resolve(resolver, givenThrowable)).doesNotContain("at org.junit");
+        Assertions.assertThat(resolver.getRenderedStackTraceCache().hitCount()).isZero();
+    }
+
+    @Test
+    void shouldApplyLastUpdate_whenUpdate_givenConcurrentUpdatesOfSameName() throws Exception {
+        List<FilteredStacktraceStackTraceJsonResolver> resolvers = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            resolvers.add(createResolver("concurrentTest", 0));
+        }
+        ExecutorService executorService = Executors.newFixedThreadPool(2);
+
+        try {
+            List<Future<?>> updates = new ArrayList<>();
+            for (String filteredPackage : Arrays.asList("org.junit", "org.assertj")) {
+                updates.add(executorService.submit(() -> {
+                    for (int i = 0; i < 200; i++) {
+                        StackTraceFilterRegistry.update("concurrentTest", Collections.emptyList(), Collections.singletonList(filteredPackage));
+                    }
+                }));
+            }
+            for (Future<?> update : updates) {
+                update.get();
+            }
+        } finally {
+            executorService.shutdown();
+        }
+
+        Assertions.assertThat(resolvers)
+                .extracting(FilteredStacktraceStackTraceJsonResolver::getStackTraceFilter)
+                .containsOnly(resolvers.get(0).getStackTraceFilter());
+    }
+
+    @Test
+    void shouldUpdateNothing_whenUpdate_givenUnknownName() {
+        createResolver("", 0);
+
+        Assertions.assertThat(StackTraceFilterRegistry.update("unknownName", Collections.emptyList(), Collections.emptyList())).isZero();
+    }
+
+    @Test
+    void shouldThrowException_whenUpdate_givenNullList() {
+        Assertions.assertThatThrownBy(() -> StackTraceFilterRegistry.update("nullTest", null, Collections.emptyList()))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private FilteredStacktraceStackTraceJsonResolver createResolver(String filterName, int renderedStackTraceCacheSize, String... filteredPackages) {
+        JsonTemplateFieldConfig fieldConfig = JsonTemplateFieldConfig.builder()
+                .filteredPackages(Arrays.asList(filteredPackages))
+                .renderedStackTraceCacheSize(renderedStackTraceCacheSize)
+                .filterName(filterName)
+                .build();
+
+        return new FilteredStacktraceStackTraceJsonResolver(new QueueingRecyclerFactory(LinkedList::new), 60000, fieldConfig);
+    }
+
+    private String resolve(FilteredStacktraceStackTraceJsonResolver resolver, Throwable throwable) {
+        JsonWriter jsonWriter = JsonWriter.newBuilder().setMaxStringLength(60000).setTruncatedStringSuffix("...").build();
+
+        resolver.resolve(throwable, jsonWriter);
+
+        return jsonWriter.getStringBuilder().toString();
+    }
+
+    private Exception createExceptionWithStacktrace() {
+        try {
+            throw new ArithmeticException("/ by zero");
+        } catch (Exception e) {
+            return e;
+        }
+    }
+}
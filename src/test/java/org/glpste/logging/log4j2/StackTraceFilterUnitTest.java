@@ -0,0 +1,56 @@
+package org.glpste.logging.log4j2;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+class StackTraceFilterUnitTest {
+    @Test
+    void shouldFilterConfiguredPackages_whenIsFiltered_givenFilterList() {
+        StackTraceFilter filter = new StackTraceFilter(Collections.emptyList(), Collections.singletonList("org.junit."), 0);
+
+        Assertions.assertThat(filter.isFiltered("org.junit.jupiter.api.Test")).isTrue();
+        Assertions.assertThat(filter.isFiltered("org.glpste.logging.log4j2.StackTraceFilter")).isFalse();
+    }
+
+    @Test
+    void shouldFilterEverythingElse_whenIsFiltered_givenAllowList() {
+        StackTraceFilter filter = new StackTraceFilter(Collections.singletonList("org.glpste."), Collections.singletonList("org.glpste."), 0);
+
+        Assertions.assertThat(filter.isFiltered("org.glpste.logging.log4j2.StackTraceFilter")).isFalse();
+        Assertions.assertThat(filter.isFiltered("java.lang.Thread")).isTrue();
+    }
+
+    @Test
+    void shouldReturnSameVerdict_whenIsFiltered_givenVerdictCacheEnabled() {
+        StackTraceFilter filter = new StackTraceFilter(Collections.emptyList(), Collections.singletonList("org.junit."), 1);
+
+        for (int i = 0; i < 3; i++) {
+            Assertions.assertThat(filter.isFiltered("org.junit.jupiter.api.Test")).isTrue();
+            Assertions.assertThat(filter.isFiltered("java.lang.Thread")).isFalse();
+        }
+    }
+
+    @Test
+    void shouldApplyFrameRules_whenIsFiltered_givenFrameRulesInBothLists() {
+        StackTraceFilter filter = new StackTraceFilter(Collections.singletonList("org.junit.Assert#fail"),
+                Arrays.asList("org.junit.", "com.example.Filter#doFilter"), 0);
+
+        Assertions.assertThat(filter.isFiltered(new StackTraceElement("org.junit.Assert", "fail", "Assert.java", 1))).isFalse();
+        Assertions.assertThat(filter.isFiltered(new StackTraceElement("org.junit.Assert", "assertTrue", "Assert.java", 1))).isTrue();
+        Assertions.assertThat(filter.isFiltered(new StackTraceElement("com.example.Filter", "doFilter", "Filter.java", 1))).isTrue();
+        Assertions.assertThat(filter.isFiltered(new StackTraceElement("com.example.Filter", "init", "Filter.java", 1))).isFalse();
+    }
+
+    @Test
+    void shouldIgnoreFilteredFrameRules_whenIsFiltered_givenAllowList() {
+        StackTraceFilter filter = new StackTraceFilter(Collections.singletonList("com.example."),
+                Arrays.asList("com.example.Filter#doFilter", "frame:synthetic"), 0);
+
+        Assertions.assertThat(filter.isFiltered(new StackTraceElement("com.example.Filter", "doFilter", "Filter.java", 1))).isFalse();
+        Assertions.assertThat(filter.isFiltered(new StackTraceElement("com.example.Service", "lambda$call$0", "Service.java", 1))).isFalse();
+        Assertions.assertThat(filter.isFiltered(new StackTraceElement("java.lang.Thread", "run", "Thread.java", 1))).isTrue();
+    }
+}